@@ -0,0 +1,184 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.lang.reflect.Method;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.junit.runners.model.FrameworkMethod;
+
+/**
+ * The combinations of values used to fill the {@literal @}{@link All} parameters of a test
+ * method. Combinations are not stored, each one is decoded from its index when needed, so that the
+ * number of combinations is known without building any of them.
+ * <p/>
+ * Combinations are ordered as nested loops over the parameters, the last parameter changing
+ * the fastest. When a {@link Combinations} strategy other than {@link Combinations.Strategy#ALL}
+ * applies, only the chosen combinations are kept, each one identified by the indexes of its values.
+ */
+class AllCombinations {
+
+    private final Method method;
+    private final List<AllParameter> parameters;
+    private final List<int[]> selected;
+    private final boolean identified;
+    private final int size;
+
+    /**
+     * @param method     The test method.
+     * @param parameters The values each {@literal @}{@link All} parameter can take.
+     * @param strategy   The {@link Combinations} choosing the combinations to run, or {@code null} to
+     *                   run all of them.
+     * @param identified Whether every combination needs an identifier, reduced combinations always
+     *                   have one.
+     */
+    AllCombinations(Method method, List<AllParameter> parameters, Combinations strategy, boolean identified) {
+        this.method = method;
+        this.parameters = parameters;
+        boolean reduced = strategy != null && strategy.value() != Combinations.Strategy.ALL;
+        this.identified = identified || reduced;
+
+        // Strategies keeping every combination use the lazy path rather than listing all of them
+        if (reduced && !CombinationReducer.keepsAll(strategy, parameters.size())) {
+            int[] radices = new int[parameters.size()];
+            for (int i = 0; i < radices.length; i++) {
+                radices[i] = parameters.get(i).size();
+            }
+            selected = CombinationReducer.reduce(strategy, radices);
+            size = selected.size();
+            return;
+        }
+
+        selected = null;
+        long product = 1;
+        for (AllParameter parameter : parameters) {
+            product *= parameter.size();
+            if (product > Integer.MAX_VALUE) {
+                throw new IllegalStateException("The @All parameters of " + method
+                        + " have more than " + Integer.MAX_VALUE + " combinations.");
+            }
+        }
+        size = (int) product;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param index The index of the combination, between {@code 0} and {@link #size()} excluded.
+     * @return The values to use for the {@literal @}{@link All} parameters, in order.
+     */
+    List<AllParameter.Value> get(int index) {
+        int[] tuple = getTuple(index);
+        AllParameter.Value[] combination = new AllParameter.Value[tuple.length];
+        for (int parameter = 0; parameter < combination.length; parameter++) {
+            combination[parameter] = parameters.get(parameter).get(tuple[parameter]);
+        }
+        return Arrays.asList(combination);
+    }
+
+    /**
+     * @return For each parameter, the index of its value in the combination.
+     */
+    private int[] getTuple(int index) {
+        if (selected != null) {
+            return selected.get(index);
+        }
+
+        int[] tuple = new int[parameters.size()];
+        int remainder = index;
+        for (int parameter = tuple.length - 1; parameter >= 0; parameter--) {
+            int parameterSize = parameters.get(parameter).size();
+            tuple[parameter] = remainder % parameterSize;
+            remainder /= parameterSize;
+        }
+        return tuple;
+    }
+
+    /**
+     * @param index The index of the combination, between {@code 0} and {@link #size()} excluded.
+     * @return The stable identifier of the combination, such as {@code [0,3,1]}, or {@code null} if
+     * combinations are not identified.
+     */
+    String getId(int index) {
+        if (selected == null && !identified) {
+            return null;
+        }
+        return getStableId(index);
+    }
+
+    /**
+     * @param index The index of the combination, between {@code 0} and {@link #size()} excluded.
+     * @return The indexes of the values of the combination, such as {@code [0,3,1]}, whether or not
+     * combinations are identified in test names.
+     */
+    String getStableId(int index) {
+        return Arrays.toString(getTuple(index)).replace(" ", "");
+    }
+
+    /**
+     * @return A view of the combinations as test methods, created when accessed.
+     */
+    List<FrameworkMethod> asFrameworkMethods() {
+        return new FrameworkMethods();
+    }
+
+    /**
+     * @param indexes The indexes of the combinations to keep, in increasing order.
+     * @return A view of some of the combinations as test methods, created when accessed.
+     */
+    List<FrameworkMethod> asFrameworkMethods(int[] indexes) {
+        return new SelectedFrameworkMethods(indexes);
+    }
+
+    private class FrameworkMethods extends AbstractList<FrameworkMethod> implements RandomAccess {
+        @Override
+        public FrameworkMethod get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return new InjectedFrameworkMethod(method, AllCombinations.this, index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private class SelectedFrameworkMethods extends AbstractList<FrameworkMethod> implements RandomAccess {
+        private final int[] indexes;
+
+        SelectedFrameworkMethods(int[] indexes) {
+            this.indexes = indexes;
+        }
+
+        @Override
+        public FrameworkMethod get(int index) {
+            return new InjectedFrameworkMethod(method, AllCombinations.this, indexes[index]);
+        }
+
+        @Override
+        public int size() {
+            return indexes.length;
+        }
+    }
+}
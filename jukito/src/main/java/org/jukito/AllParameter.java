@@ -0,0 +1,152 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.inject.Binding;
+import com.google.inject.Injector;
+import com.google.inject.Scope;
+import com.google.inject.Scopes;
+import com.google.inject.spi.DefaultBindingScopingVisitor;
+
+/**
+ * The values an {@literal @}{@link All} parameter can take: first the instances of its bindings,
+ * then the values of its {@link AllSource sources}. Values are only obtained when a test uses them.
+ */
+class AllParameter {
+
+    /**
+     * One value of an {@literal @}{@link All} parameter.
+     */
+    static class Value {
+        private final Binding<?> binding;
+        private final int sourceIndex;
+
+        Value(Binding<?> binding, int sourceIndex) {
+            this.binding = binding;
+            this.sourceIndex = sourceIndex;
+        }
+
+        /**
+         * @return The binding of the value, or of the {@link AllSource} holding it.
+         */
+        Binding<?> getBinding() {
+            return binding;
+        }
+
+        /**
+         * @param injector The injector of the test.
+         * @return The value.
+         */
+        Object resolve(Injector injector) {
+            Object instance = injector.getInstance(binding.getKey());
+            if (sourceIndex < 0) {
+                return instance;
+            }
+            return ((AllSource<?>) instance).get(sourceIndex);
+        }
+    }
+
+    private final List<Binding<?>> bindings;
+    private final List<Binding<?>> sourceBindings;
+    private final int[] sourceStarts;
+    private final int size;
+
+    AllParameter(List<Binding<?>> bindings) {
+        this(bindings, Collections.<Binding<?>>emptyList());
+    }
+
+    /**
+     * @param bindings       The bindings of the parameter, the list must support fast random access.
+     * @param sourceBindings The bindings of its {@link AllSource sources}. Their sizes are read while
+     *                       the tests are planned, outside of any test, so they must be unscoped or
+     *                       Guice singletons.
+     * @throws IllegalStateException If a source is bound in another scope.
+     */
+    AllParameter(List<Binding<?>> bindings, List<Binding<?>> sourceBindings) {
+        this.bindings = bindings;
+        this.sourceBindings = sourceBindings;
+
+        sourceStarts = new int[sourceBindings.size()];
+        long total = bindings.size();
+        for (int i = 0; i < sourceStarts.length; i++) {
+            if (!isUnscopedOrSingleton(sourceBindings.get(i))) {
+                throw new IllegalStateException("The source bound at " + sourceBindings.get(i).getKey()
+                        + " must be unscoped or a singleton, its size is needed before any test runs.");
+            }
+            sourceStarts[i] = (int) total;
+            total += ((AllSource<?>) sourceBindings.get(i).getProvider().get()).size();
+            if (total > Integer.MAX_VALUE) {
+                throw new IllegalStateException("The sources bound at " + sourceBindings.get(i).getKey()
+                        + " have more than " + Integer.MAX_VALUE + " values.");
+            }
+        }
+        size = (int) total;
+    }
+
+    private static boolean isUnscopedOrSingleton(Binding<?> binding) {
+        return binding.acceptScopingVisitor(new DefaultBindingScopingVisitor<Boolean>() {
+            @Override
+            public Boolean visitEagerSingleton() {
+                return true;
+            }
+
+            @Override
+            public Boolean visitScope(Scope scope) {
+                return scope == Scopes.SINGLETON;
+            }
+
+            @Override
+            public Boolean visitScopeAnnotation(Class<? extends Annotation> scopeAnnotation) {
+                return scopeAnnotation == com.google.inject.Singleton.class
+                        || scopeAnnotation == javax.inject.Singleton.class;
+            }
+
+            @Override
+            public Boolean visitNoScoping() {
+                return true;
+            }
+        });
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param index The index of the value, between {@code 0} and {@link #size()} excluded.
+     */
+    Value get(int index) {
+        if (index < bindings.size()) {
+            return new Value(bindings.get(index), -1);
+        }
+
+        int source = Arrays.binarySearch(sourceStarts, index);
+        if (source < 0) {
+            source = -source - 2;
+        }
+        // Empty sources start where the next one starts
+        while (source + 1 < sourceStarts.length && sourceStarts[source + 1] <= index) {
+            source++;
+        }
+        return new Value(sourceBindings.get(source), index - sourceStarts[source]);
+    }
+}
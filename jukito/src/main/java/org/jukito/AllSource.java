@@ -0,0 +1,43 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+/**
+ * A source of values for {@literal @}{@link All} parameters. Unlike
+ * {@link TestModule#bindManyInstances(Class, Object[])}, the values of a source are not bound one
+ * by one in the injector: the injector holds a single binding for the whole source, and every
+ * value is only requested when the test using it runs.
+ * <p/>
+ * Sources are bound with {@link TestModule#bindManyFromSource(Class, AllSource)} or
+ * {@link TestModule#bindManyNamedFromSource(Class, String, AllSource)}. Use
+ * {@link IterableAllSource} to pull the values from an {@link Iterable}.
+ *
+ * @param <T> The type of the values.
+ */
+public interface AllSource<T> {
+
+    /**
+     * @return The number of values. It should not change once the tests are discovered.
+     */
+    int size();
+
+    /**
+     * @param index The index of the value, between {@code 0} and {@link #size()} excluded.
+     * @return The value. Values are most often requested in increasing order of their index.
+     */
+    T get(int index);
+}
@@ -59,6 +59,7 @@ public class BindingsCollector {
         Key<?> key;
         Key<?> boundKey;
         String scope;
+        boolean testScoped;
 
         public static BindingInfo create(Binding<?> binding, Key<?> boundKey,
                 Object instance) {
@@ -67,6 +68,7 @@ public class BindingsCollector {
             bindingInfo.boundKey = boundKey;
             bindingInfo.boundInstance = instance;
             bindingInfo.scope = binding.acceptScopingVisitor(new GuiceScopingVisitor());
+            bindingInfo.testScoped = TestScope.isTestScoped(binding);
             return bindingInfo;
         }
 
@@ -79,16 +81,28 @@ public class BindingsCollector {
     }
 
     private final AbstractModule module;
+    private final List<Element> elements;
     private final List<BindingInfo> bindingsObserved = new ArrayList<>();
     private final List<Message> messages = new ArrayList<>();
 
     BindingsCollector(AbstractModule module) {
         this.module = module;
+        this.elements = null;
+    }
+
+    /**
+     * Collects the bindings from elements that were already recorded, without configuring any module.
+     *
+     * @param elements The recorded elements.
+     */
+    BindingsCollector(List<Element> elements) {
+        this.module = null;
+        this.elements = elements;
     }
 
     public void collectBindings() {
         GuiceElementVisitor visitor = new GuiceElementVisitor();
-        visitor.visitElements(Elements.getElements(module));
+        visitor.visitElements(elements == null ? Elements.getElements(module) : elements);
 
         // TODO report errors?
     }
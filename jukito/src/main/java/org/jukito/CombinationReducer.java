@@ -0,0 +1,251 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Chooses the combinations to run according to a {@link Combinations.Strategy}. A combination is
+ * a tuple holding, for each parameter, the index of its value. The choices only depend on the
+ * number of values of each parameter, so they are stable from one run to the next.
+ */
+class CombinationReducer {
+
+    private static final Comparator<int[]> LEXICOGRAPHIC_ORDER = new Comparator<int[]>() {
+        @Override
+        public int compare(int[] first, int[] second) {
+            for (int i = 0; i < first.length; i++) {
+                if (first[i] != second[i]) {
+                    return first[i] < second[i] ? -1 : 1;
+                }
+            }
+            return 0;
+        }
+    };
+
+    private CombinationReducer() {
+    }
+
+    /**
+     * @param combinations The annotation describing the strategy.
+     * @param radices      The number of values of each parameter.
+     * @return The tuples of the chosen combinations.
+     * @throws IllegalArgumentException If the limit of the annotation is negative.
+     */
+    static List<int[]> reduce(Combinations combinations, int[] radices) {
+        if (combinations.limit() < 0) {
+            throw new IllegalArgumentException("The limit of @Combinations must not be negative, got "
+                    + combinations.limit());
+        }
+        int limit = combinations.limit() == 0 ? Integer.MAX_VALUE : combinations.limit();
+
+        for (int radix : radices) {
+            if (radix == 0) {
+                return Collections.emptyList();
+            }
+        }
+
+        switch (combinations.value()) {
+            case PAIRWISE:
+                return radices.length < 2 ? first(radices, limit) : limit(pairwise(radices), limit);
+            case SAMPLED:
+                return sample(radices, limit, combinations.seed());
+            case CAPPED:
+                return first(radices, limit);
+            default:
+                throw new IllegalArgumentException("Cannot reduce combinations with " + combinations.value());
+        }
+    }
+
+    /**
+     * @param combinations The annotation describing the strategy.
+     * @param parameters   The number of parameters.
+     * @return Whether the strategy keeps every combination, whatever the number of values of each
+     * parameter. They should then be decoded from their index rather than {@link #reduce reduced}.
+     */
+    static boolean keepsAll(Combinations combinations, int parameters) {
+        if (combinations.limit() != 0) {
+            return false;
+        }
+        switch (combinations.value()) {
+            case PAIRWISE:
+                return parameters < 2;
+            case SAMPLED:
+            case CAPPED:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Greedily builds combinations covering every pair of values of any two parameters. Each new
+     * combination starts from the first pair not covered yet, then every other parameter takes the
+     * value covering the most pairs not covered yet.
+     *
+     * @throws IllegalArgumentException If two parameters have more pairs of values than a
+     *                                  {@link BitSet} can hold.
+     */
+    static List<int[]> pairwise(int[] radices) {
+        int parameters = radices.length;
+        if (parameters < 2) {
+            return first(radices, Integer.MAX_VALUE);
+        }
+
+        BitSet[][] covered = new BitSet[parameters][parameters];
+        long uncovered = 0;
+        for (int p = 0; p < parameters; p++) {
+            for (int q = p + 1; q < parameters; q++) {
+                long pairs = (long) radices[p] * radices[q];
+                if (pairs > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Parameters " + p + " and " + q + " have more than "
+                            + Integer.MAX_VALUE + " pairs of values.");
+                }
+                covered[p][q] = new BitSet((int) pairs);
+                uncovered += pairs;
+            }
+        }
+
+        List<int[]> result = new ArrayList<>();
+        while (uncovered > 0) {
+            int[] tuple = new int[parameters];
+            Arrays.fill(tuple, -1);
+            seedWithUncoveredPair(tuple, covered, radices);
+
+            for (int k = 0; k < parameters; k++) {
+                if (tuple[k] < 0) {
+                    tuple[k] = bestValue(tuple, k, covered, radices);
+                }
+            }
+
+            for (int p = 0; p < parameters; p++) {
+                for (int q = p + 1; q < parameters; q++) {
+                    int pair = tuple[p] * radices[q] + tuple[q];
+                    if (!covered[p][q].get(pair)) {
+                        covered[p][q].set(pair);
+                        uncovered--;
+                    }
+                }
+            }
+            result.add(tuple);
+        }
+        return result;
+    }
+
+    private static void seedWithUncoveredPair(int[] tuple, BitSet[][] covered, int[] radices) {
+        for (int p = 0; p < radices.length; p++) {
+            for (int q = p + 1; q < radices.length; q++) {
+                int pair = covered[p][q].nextClearBit(0);
+                if (pair < radices[p] * radices[q]) {
+                    tuple[p] = pair / radices[q];
+                    tuple[q] = pair % radices[q];
+                    return;
+                }
+            }
+        }
+    }
+
+    private static int bestValue(int[] tuple, int k, BitSet[][] covered, int[] radices) {
+        int bestValue = 0;
+        int bestGain = -1;
+        for (int value = 0; value < radices[k]; value++) {
+            int gain = 0;
+            for (int other = 0; other < radices.length; other++) {
+                if (other == k || tuple[other] < 0) {
+                    continue;
+                }
+                boolean isCovered = other < k
+                        ? covered[other][k].get(tuple[other] * radices[k] + value)
+                        : covered[k][other].get(value * radices[other] + tuple[other]);
+                if (!isCovered) {
+                    gain++;
+                }
+            }
+            if (gain > bestGain) {
+                bestGain = gain;
+                bestValue = value;
+            }
+        }
+        return bestValue;
+    }
+
+    /**
+     * Chooses at most {@code limit} distinct combinations at random, returned in lexicographic order.
+     */
+    static List<int[]> sample(int[] radices, int limit, long seed) {
+        long total = 1;
+        for (int radix : radices) {
+            total *= radix;
+            if (total > limit) {
+                break;
+            }
+        }
+        if (total <= limit) {
+            return first(radices, limit);
+        }
+
+        Random random = new Random(seed);
+        Set<List<Integer>> chosen = new HashSet<>();
+        List<int[]> result = new ArrayList<>(limit);
+        while (result.size() < limit) {
+            int[] tuple = new int[radices.length];
+            List<Integer> key = new ArrayList<>(radices.length);
+            for (int p = 0; p < radices.length; p++) {
+                tuple[p] = random.nextInt(radices[p]);
+                key.add(tuple[p]);
+            }
+            if (chosen.add(key)) {
+                result.add(tuple);
+            }
+        }
+        Collections.sort(result, LEXICOGRAPHIC_ORDER);
+        return result;
+    }
+
+    /**
+     * @return The first {@code limit} combinations, in the order of nested loops over the parameters.
+     */
+    static List<int[]> first(int[] radices, int limit) {
+        List<int[]> result = new ArrayList<>();
+        int[] tuple = new int[radices.length];
+        while (result.size() < limit) {
+            result.add(tuple.clone());
+
+            int p = radices.length - 1;
+            while (p >= 0 && ++tuple[p] == radices[p]) {
+                tuple[p] = 0;
+                p--;
+            }
+            if (p < 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static List<int[]> limit(List<int[]> tuples, int limit) {
+        return tuples.size() > limit ? tuples.subList(0, limit) : tuples;
+    }
+}
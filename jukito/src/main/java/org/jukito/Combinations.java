@@ -0,0 +1,78 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation can be used on a test method, or on a test class for all its methods, to run
+ * only some of the combinations of the values bound to its {@literal @}{@link All} parameters.
+ * <p/>
+ * Every combination that is run gets a stable identifier appended to its name: the indexes of the
+ * values used for each parameter, for example {@code someTest[0,3,1]}. The same combination keeps
+ * the same identifier as long as the bindings do not change, so it can be run again on its own.
+ * <p/>
+ * Example:
+ * <pre>
+ * {@literal @}Test
+ * {@literal @}Combinations(value = Combinations.Strategy.SAMPLED, limit = 50, seed = 42)
+ * public void someTest(@All Request request, @All Locale locale, @All User user) {
+ * }</pre>
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Combinations {
+
+    /**
+     * How combinations are chosen.
+     */
+    enum Strategy {
+        /**
+         * Every combination is run, this is the default behavior of {@literal @}{@link All}.
+         */
+        ALL,
+        /**
+         * Combinations are chosen so that every pair of values of any two parameters is run at least
+         * once. If {@link #limit()} is positive, at most that many combinations are run.
+         */
+        PAIRWISE,
+        /**
+         * At most {@link #limit()} combinations are chosen at random, using {@link #seed()}. Without
+         * a limit, every combination is run.
+         */
+        SAMPLED,
+        /**
+         * The first {@link #limit()} combinations are run. Without a limit, every combination is run.
+         */
+        CAPPED
+    }
+
+    Strategy value() default Strategy.ALL;
+
+    /**
+     * The maximum number of combinations to run, {@code 0} for no limit. Must not be negative.
+     */
+    int limit() default 0;
+
+    /**
+     * The seed of the random choices of {@link Strategy#SAMPLED}.
+     */
+    long seed() default 0;
+}
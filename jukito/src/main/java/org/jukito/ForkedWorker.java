@@ -0,0 +1,262 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import org.junit.runner.Description;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
+
+/**
+ * A worker JVM started by {@link ForkingSuite}. It connects back to the suite, then runs the test
+ * classes the suite hands out one after the other and sends back their results, until the suite
+ * has no more work.
+ * <p/>
+ * This class is not meant to be used directly.
+ */
+public final class ForkedWorker {
+
+    /**
+     * A test class, or a shard of one when it is split, to run in a worker.
+     */
+    static class Unit implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String className;
+        private final int shardIndex;
+        private final int shardCount;
+
+        Unit(String className, int shardIndex, int shardCount) {
+            this.className = className;
+            this.shardIndex = shardIndex;
+            this.shardCount = shardCount;
+        }
+
+        String getClassName() {
+            return className;
+        }
+
+        int getShardIndex() {
+            return shardIndex;
+        }
+
+        int getShardCount() {
+            return shardCount;
+        }
+
+        @Override
+        public String toString() {
+            return shardCount > 1 ? className + " (shard " + shardIndex + " of " + shardCount + ")" : className;
+        }
+    }
+
+    /**
+     * A notification sent from a worker to the suite.
+     */
+    static class Event implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        enum Kind {
+            STARTED, FINISHED, FAILED, ASSUMPTION_FAILED, IGNORED, UNIT_FINISHED
+        }
+
+        private final Kind kind;
+        private final Description description;
+        private final Throwable throwable;
+
+        Event(Kind kind, Description description, Throwable throwable) {
+            this.kind = kind;
+            this.description = description;
+            this.throwable = throwable;
+        }
+
+        boolean isUnitFinished() {
+            return kind == Kind.UNIT_FINISHED;
+        }
+
+        void fireOn(RunNotifier notifier) {
+            switch (kind) {
+                case STARTED:
+                    notifier.fireTestStarted(description);
+                    break;
+                case FINISHED:
+                    notifier.fireTestFinished(description);
+                    break;
+                case FAILED:
+                    notifier.fireTestFailure(new Failure(description, throwable));
+                    break;
+                case ASSUMPTION_FAILED:
+                    notifier.fireTestAssumptionFailed(new Failure(description, throwable));
+                    break;
+                case IGNORED:
+                    notifier.fireTestIgnored(description);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Sends the notifications of the tests to the suite. Tests of a {@link Parallel} class notify
+     * from several threads, so events are written one at a time.
+     */
+    private static class EventSender extends RunListener {
+        private final ObjectOutputStream output;
+
+        EventSender(ObjectOutputStream output) {
+            this.output = output;
+        }
+
+        @Override
+        public void testStarted(Description description) throws IOException {
+            send(new Event(Event.Kind.STARTED, strip(description), null));
+        }
+
+        @Override
+        public void testFinished(Description description) throws IOException {
+            send(new Event(Event.Kind.FINISHED, strip(description), null));
+        }
+
+        @Override
+        public void testFailure(Failure failure) throws IOException {
+            send(new Event(Event.Kind.FAILED, strip(failure.getDescription()), serializable(failure.getException())));
+        }
+
+        @Override
+        public void testAssumptionFailure(Failure failure) {
+            try {
+                send(new Event(Event.Kind.ASSUMPTION_FAILED, strip(failure.getDescription()),
+                        serializable(failure.getException())));
+            } catch (IOException e) {
+                throw new IllegalStateException("Lost the connection to the suite.", e);
+            }
+        }
+
+        @Override
+        public void testIgnored(Description description) throws IOException {
+            send(new Event(Event.Kind.IGNORED, strip(description), null));
+        }
+
+        void send(Event event) throws IOException {
+            synchronized (output) {
+                output.writeObject(event);
+                output.flush();
+            }
+        }
+
+        void unitFinished() throws IOException {
+            synchronized (output) {
+                output.writeObject(new Event(Event.Kind.UNIT_FINISHED, null, null));
+                output.flush();
+                // Descriptions are not sent again, no need to remember them
+                output.reset();
+            }
+        }
+    }
+
+    private ForkedWorker() {
+    }
+
+    /**
+     * @param args The port on which the suite listens.
+     */
+    public static void main(String[] args) throws Exception {
+        work(Integer.parseInt(args[0]));
+        // Threads left behind by tests must not keep the worker alive
+        System.exit(0);
+    }
+
+    /**
+     * Runs the units handed out by the suite listening on {@code port}, until it has no more work.
+     */
+    static void work(int port) throws IOException, ClassNotFoundException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            ObjectOutputStream output = new ObjectOutputStream(socket.getOutputStream());
+            output.flush();
+            ObjectInputStream input = new ObjectInputStream(socket.getInputStream());
+
+            // A single notifier for the whole worker, so suite-scoped singletons live until it stops
+            RunNotifier notifier = new RunNotifier();
+            EventSender sender = new EventSender(output);
+            notifier.addListener(sender);
+            Result result = new Result();
+            notifier.addListener(result.createListener());
+
+            Unit unit;
+            while ((unit = (Unit) input.readObject()) != null) {
+                run(unit, notifier, sender);
+                sender.unitFinished();
+            }
+            notifier.fireTestRunFinished(result);
+        }
+    }
+
+    private static void run(Unit unit, RunNotifier notifier, EventSender sender) throws IOException {
+        if (unit.getShardCount() > 1) {
+            System.setProperty(Shard.COUNT_PROPERTY, Integer.toString(unit.getShardCount()));
+            System.setProperty(Shard.INDEX_PROPERTY, Integer.toString(unit.getShardIndex()));
+        } else {
+            System.clearProperty(Shard.COUNT_PROPERTY);
+            System.clearProperty(Shard.INDEX_PROPERTY);
+        }
+
+        Class<?> testClass;
+        try {
+            testClass = Class.forName(unit.getClassName());
+        } catch (ClassNotFoundException e) {
+            sender.send(new Event(Event.Kind.FAILED, Description.createSuiteDescription(unit.getClassName()), e));
+            return;
+        }
+        Request.aClass(testClass).getRunner().run(notifier);
+    }
+
+    /**
+     * @return A copy of the description without its annotations and children, which may not be
+     * serializable, and that is still equal to the original.
+     */
+    static Description strip(Description description) {
+        if (description.getMethodName() != null) {
+            return Description.createTestDescription(description.getClassName(), description.getMethodName());
+        }
+        return Description.createSuiteDescription(description.getDisplayName());
+    }
+
+    /**
+     * @return The throwable if it can be serialized, or else a copy of its message and stack trace.
+     */
+    static Throwable serializable(Throwable throwable) {
+        try (ObjectOutputStream output = new ObjectOutputStream(new ByteArrayOutputStream())) {
+            output.writeObject(throwable);
+            return throwable;
+        } catch (IOException e) {
+            RuntimeException copy = new RuntimeException(throwable.toString());
+            copy.setStackTrace(throwable.getStackTrace());
+            return copy;
+        }
+    }
+}
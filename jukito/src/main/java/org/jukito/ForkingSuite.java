@@ -0,0 +1,389 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.runner.Description;
+import org.junit.runner.Request;
+import org.junit.runner.RunWith;
+import org.junit.runner.Runner;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.Suite;
+import org.junit.runners.model.InitializationError;
+
+/**
+ * A suite running its test classes in several local worker JVMs. Workers pull the next test class
+ * from a shared queue as soon as they are done with the previous one, so that a worker stuck with
+ * a long class does not hold back the others. The results of all workers are reported as a single
+ * run.
+ * <p/>
+ * The time spent on every class is recorded, and the longest classes are handed out first on the
+ * next run. Classes run with {@link JukitoRunner} that took longer than their share of the whole
+ * suite are also split into several {@link Shard shards}, down to the combinations of their
+ * {@literal @}{@link All} parameters, run by different workers.
+ * <p/>
+ * Example:
+ * <pre>
+ * {@literal @}RunWith(ForkingSuite.class)
+ * {@literal @}Suite.SuiteClasses({FirstTest.class, SecondTest.class})
+ * public class AllTests {
+ * }</pre>
+ *
+ * The number of workers is read from the {@code jukito.fork.workers} system property and defaults
+ * to the number of available processors. Durations are stored in the file given by the
+ * {@code jukito.fork.durations} system property, {@code target/jukito-durations.properties} by
+ * default. Workers use the class path and the JVM arguments of the current JVM, except the
+ * debugger agent, and receive its {@code jukito.*} system properties. More JVM arguments can be
+ * given to the workers, separated by spaces, with the {@code jukito.fork.jvmArgs} system property.
+ * <p/>
+ * The tests of every class are described before the workers start, so that the results of each
+ * test are reported on its own description.
+ */
+public class ForkingSuite extends Runner {
+
+    static final String WORKERS_PROPERTY = "jukito.fork.workers";
+    static final String DURATIONS_PROPERTY = "jukito.fork.durations";
+    static final String JVM_ARGS_PROPERTY = "jukito.fork.jvmArgs";
+
+    private static final String DEFAULT_DURATIONS_FILE = "target/jukito-durations.properties";
+    private static final int CONNECTION_TIMEOUT_MILLIS = 60000;
+
+    /**
+     * Starts a worker connecting back to the suite.
+     */
+    interface WorkerLauncher {
+        /**
+         * @param port The port on which the suite listens.
+         * @return The process of the worker.
+         */
+        Process launch(int port) throws IOException;
+    }
+
+    private static final WorkerLauncher JVM_LAUNCHER = new WorkerLauncher() {
+        @Override
+        public Process launch(int port) throws IOException {
+            return startWorker(port);
+        }
+    };
+
+    private final List<Class<?>> testClasses;
+    private final Description description;
+    private final WorkerLauncher launcher;
+
+    public ForkingSuite(Class<?> suiteClass) throws InitializationError {
+        this(suiteClass, JVM_LAUNCHER);
+    }
+
+    ForkingSuite(Class<?> suiteClass, WorkerLauncher launcher) throws InitializationError {
+        this.launcher = launcher;
+        Suite.SuiteClasses annotation = suiteClass.getAnnotation(Suite.SuiteClasses.class);
+        if (annotation == null) {
+            throw new InitializationError("Class '" + suiteClass.getName()
+                    + "' must have a SuiteClasses annotation.");
+        }
+        testClasses = Arrays.<Class<?>>asList(annotation.value());
+
+        description = Description.createSuiteDescription(suiteClass);
+        for (Class<?> testClass : testClasses) {
+            description.addChild(describe(testClass));
+        }
+    }
+
+    /**
+     * @return The description of the tests of the class, as its runner gives it. The Jukito runner
+     * only builds its injector to describe methods with {@literal @}{@link All} parameters.
+     */
+    private static Description describe(Class<?> testClass) {
+        try {
+            return Request.aClass(testClass).getRunner().getDescription();
+        } catch (RuntimeException e) {
+            // The worker reports the failure when it runs the class
+            return Description.createSuiteDescription(testClass);
+        }
+    }
+
+    @Override
+    public Description getDescription() {
+        return description;
+    }
+
+    @Override
+    public void run(RunNotifier notifier) {
+        int workers = Math.max(1, Integer.getInteger(WORKERS_PROPERTY, Runtime.getRuntime().availableProcessors()));
+        TestDurations durations = TestDurations.load(
+                new File(System.getProperty(DURATIONS_PROPERTY, DEFAULT_DURATIONS_FILE)));
+        Queue<ForkedWorker.Unit> queue = new ConcurrentLinkedQueue<>(planUnits(testClasses, durations, workers));
+
+        List<Process> processes = new ArrayList<>();
+        List<Thread> connections = new ArrayList<>();
+        try (ServerSocket server = new ServerSocket(0, workers, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(CONNECTION_TIMEOUT_MILLIS);
+            int workerCount = Math.min(workers, queue.size());
+            for (int i = 0; i < workerCount; i++) {
+                processes.add(launcher.launch(server.getLocalPort()));
+            }
+
+            for (int i = 0; i < workerCount; i++) {
+                Thread connection = new Thread(new WorkerConnection(server.accept(), queue, notifier, durations),
+                        "jukito-fork-" + (i + 1));
+                connection.start();
+                connections.add(connection);
+            }
+            awaitConnections(connections, processes);
+            for (Process process : processes) {
+                process.waitFor();
+            }
+            durations.save();
+        } catch (IOException e) {
+            notifier.fireTestFailure(new Failure(description, e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            notifier.fireTestFailure(new Failure(description, e));
+        } finally {
+            // The workers already connected keep running units, even if the others failed
+            awaitConnections(connections, processes);
+            destroy(processes);
+        }
+
+        // Classes that could not be handed out, because workers failed
+        for (ForkedWorker.Unit unit : queue) {
+            notifier.fireTestFailure(new Failure(Description.createSuiteDescription(unit.getClassName()),
+                    new IllegalStateException("No worker left to run " + unit + ".")));
+        }
+    }
+
+    /**
+     * Waits for the connections to the workers to finish. If the current thread is interrupted,
+     * the workers are destroyed so that their connections fail, and these are waited for as well.
+     */
+    private static void awaitConnections(List<Thread> connections, List<Process> processes) {
+        boolean interrupted = false;
+        for (Thread connection : connections) {
+            while (connection.isAlive()) {
+                try {
+                    connection.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    destroy(processes);
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void destroy(List<Process> processes) {
+        for (Process process : processes) {
+            process.destroy();
+        }
+    }
+
+    /**
+     * Splits the test classes into units of work, the longest first. Classes with an unknown
+     * duration are started first, since they may be the longest.
+     */
+    static List<ForkedWorker.Unit> planUnits(List<Class<?>> testClasses, TestDurations durations, int workers) {
+        long total = 0;
+        for (Class<?> testClass : testClasses) {
+            Long duration = durations.get(testClass.getName());
+            total += duration == null ? 0 : duration;
+        }
+        long share = total / workers;
+
+        final List<ForkedWorker.Unit> units = new ArrayList<>();
+        final List<Long> estimates = new ArrayList<>();
+        for (Class<?> testClass : testClasses) {
+            String className = testClass.getName();
+            Long duration = durations.get(className);
+            if (duration == null) {
+                units.add(new ForkedWorker.Unit(className, 0, 1));
+                estimates.add(Long.MAX_VALUE);
+            } else if (share > 0 && duration > share && isRunWithJukito(testClass)) {
+                int shards = (int) Math.min(workers, (duration + share - 1) / share);
+                for (int i = 0; i < shards; i++) {
+                    units.add(new ForkedWorker.Unit(className, i, shards));
+                    estimates.add(duration / shards);
+                }
+            } else {
+                units.add(new ForkedWorker.Unit(className, 0, 1));
+                estimates.add(duration);
+            }
+        }
+
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < units.size(); i++) {
+            order.add(i);
+        }
+        Collections.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer first, Integer second) {
+                return estimates.get(second).compareTo(estimates.get(first));
+            }
+        });
+        List<ForkedWorker.Unit> result = new ArrayList<>(units.size());
+        for (Integer index : order) {
+            result.add(units.get(index));
+        }
+        return result;
+    }
+
+    private static boolean isRunWithJukito(Class<?> testClass) {
+        RunWith runWith = testClass.getAnnotation(RunWith.class);
+        return runWith != null && JukitoRunner.class.isAssignableFrom(runWith.value());
+    }
+
+    private static Process startWorker(int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (isForwarded(argument)) {
+                command.add(argument);
+            }
+        }
+        String jvmArgs = System.getProperty(JVM_ARGS_PROPERTY, "").trim();
+        if (!jvmArgs.isEmpty()) {
+            command.addAll(Arrays.asList(jvmArgs.split("\\s+")));
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        // The current values of the properties, which may have been set after the JVM started
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("jukito.") && isForwardedProperty(name)) {
+                command.add("-D" + name + "=" + System.getProperty(name));
+            }
+        }
+        command.add(ForkedWorker.class.getName());
+        command.add(Integer.toString(port));
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        // The output of the worker goes through this JVM, whose own output may be captured
+        Thread pump = new Thread(new OutputPump(process.getInputStream(), System.out), "jukito-fork-output");
+        pump.setDaemon(true);
+        pump.start();
+        return process;
+    }
+
+    /**
+     * Workers cannot share the debugger port of this JVM, nor the settings of the suite itself.
+     */
+    static boolean isForwarded(String argument) {
+        if (argument.startsWith("-agentlib:jdwp") || argument.startsWith("-Xrunjdwp")
+                || argument.equals("-Xdebug")) {
+            return false;
+        }
+        return !argument.startsWith("-D") || isForwardedProperty(argument.substring(2));
+    }
+
+    private static boolean isForwardedProperty(String property) {
+        return !property.startsWith("jukito.fork.") && !property.startsWith("jukito.shard");
+    }
+
+    /**
+     * Hands out units of work to a worker and reports the results it sends back.
+     */
+    private static class WorkerConnection implements Runnable {
+        private final Socket socket;
+        private final Queue<ForkedWorker.Unit> queue;
+        private final RunNotifier notifier;
+        private final TestDurations durations;
+
+        WorkerConnection(Socket socket, Queue<ForkedWorker.Unit> queue, RunNotifier notifier,
+                TestDurations durations) {
+            this.socket = socket;
+            this.queue = queue;
+            this.notifier = notifier;
+            this.durations = durations;
+        }
+
+        @Override
+        public void run() {
+            ForkedWorker.Unit unit = null;
+            try (Socket connection = socket) {
+                ObjectOutputStream output = new ObjectOutputStream(connection.getOutputStream());
+                output.flush();
+                ObjectInputStream input = new ObjectInputStream(connection.getInputStream());
+
+                while ((unit = queue.poll()) != null) {
+                    long start = System.nanoTime();
+                    output.writeObject(unit);
+                    output.flush();
+
+                    ForkedWorker.Event event;
+                    while (!(event = (ForkedWorker.Event) input.readObject()).isUnitFinished()) {
+                        // Listeners may not expect events from several threads at once
+                        synchronized (notifier) {
+                            event.fireOn(notifier);
+                        }
+                    }
+                    durations.record(unit.getClassName(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+                output.writeObject(null);
+                output.flush();
+            } catch (IOException | ClassNotFoundException e) {
+                if (unit != null) {
+                    synchronized (notifier) {
+                        notifier.fireTestFailure(new Failure(Description.createSuiteDescription(unit.getClassName()),
+                                new IllegalStateException("The worker running " + unit + " failed.", e)));
+                    }
+                }
+            }
+        }
+    }
+
+    private static class OutputPump implements Runnable {
+        private final InputStream input;
+        private final PrintStream output;
+
+        OutputPump(InputStream input, PrintStream output) {
+            this.input = input;
+            this.output = output;
+        }
+
+        @Override
+        public void run() {
+            byte[] buffer = new byte[8192];
+            try {
+                int read;
+                while ((read = input.read(buffer)) >= 0) {
+                    output.write(buffer, 0, read);
+                }
+            } catch (IOException e) {
+                // The worker is gone
+            }
+        }
+    }
+}
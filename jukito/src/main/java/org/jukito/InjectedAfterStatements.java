@@ -44,6 +44,14 @@ public class InjectedAfterStatements extends Statement {
         }
     }
 
+    /**
+     * @param afters The statements invoking the methods, already bound to the test instance.
+     */
+    InjectedAfterStatements(Statement prev, List<Statement> afters) {
+        this.prev = prev;
+        this.afters = afters;
+    }
+
     @Override
     public void evaluate() throws Throwable {
         List<Throwable> errors = new ArrayList<Throwable>();
@@ -43,6 +43,14 @@ public class InjectedBeforeStatements extends Statement {
         }
     }
 
+    /**
+     * @param befores The statements invoking the methods, already bound to the test instance.
+     */
+    InjectedBeforeStatements(Statement next, List<Statement> befores) {
+        this.next = next;
+        this.befores = befores;
+    }
+
     @Override
     public void evaluate() throws Throwable {
         for (Statement before : befores) {
@@ -17,6 +17,8 @@
 package org.jukito;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.runners.model.FrameworkMethod;
@@ -30,18 +32,68 @@ import com.google.inject.Binding;
 public class InjectedFrameworkMethod extends FrameworkMethod {
 
     private final List<Binding<?>> bindingsToUseForParameters;
+    private final AllCombinations combinations;
+    private final int combinationIndex;
 
     public InjectedFrameworkMethod(Method method) {
-        super(method);
-        bindingsToUseForParameters = null;
+        this(method, null);
     }
 
     public InjectedFrameworkMethod(Method method, List<Binding<?>> bindingsToUseForParameters) {
         super(method);
         this.bindingsToUseForParameters = bindingsToUseForParameters;
+        this.combinations = null;
+        this.combinationIndex = -1;
+    }
+
+    /**
+     * The bindings to use are only decoded from {@code combinations} when needed.
+     */
+    InjectedFrameworkMethod(Method method, AllCombinations combinations, int combinationIndex) {
+        super(method);
+        this.bindingsToUseForParameters = null;
+        this.combinations = combinations;
+        this.combinationIndex = combinationIndex;
     }
 
+    /**
+     * @return The bindings to use for the {@literal @}{@link All} parameters. For a value coming from
+     * an {@link AllSource}, this is the binding of the source.
+     */
     public List<Binding<?>> getBindingsToUseForParameters() {
+        if (combinations != null) {
+            List<AllParameter.Value> values = combinations.get(combinationIndex);
+            List<Binding<?>> bindings = new ArrayList<>(values.size());
+            for (AllParameter.Value value : values) {
+                bindings.add(value.getBinding());
+            }
+            return bindings;
+        }
         return bindingsToUseForParameters;
     }
+
+    /**
+     * @return The values to use for the {@literal @}{@link All} parameters.
+     */
+    List<AllParameter.Value> getValuesToUseForParameters() {
+        if (combinations != null) {
+            return combinations.get(combinationIndex);
+        }
+        if (bindingsToUseForParameters == null) {
+            return Collections.emptyList();
+        }
+        List<AllParameter.Value> values = new ArrayList<>(bindingsToUseForParameters.size());
+        for (Binding<?> binding : bindingsToUseForParameters) {
+            values.add(new AllParameter.Value(binding, -1));
+        }
+        return values;
+    }
+
+    /**
+     * @return The stable identifier of the combination of {@link All} bindings used by this method,
+     * or {@code null} if it does not need one.
+     */
+    String getCombinationId() {
+        return combinations == null ? null : combinations.getId(combinationIndex);
+    }
 }
@@ -17,19 +17,19 @@
 package org.jukito;
 
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.junit.runners.model.FrameworkMethod;
 import org.junit.runners.model.Statement;
 
-import com.google.inject.Binding;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.Module;
-import com.google.inject.internal.Errors;
 
 /**
  * A {@link Statement} invoking a method with parameters by filling-in these
@@ -40,71 +40,115 @@ class InjectedStatement extends Statement {
     private final FrameworkMethod method;
     private final Object test;
     private final Injector injector;
+    private final InjectorIndex injectorIndex;
+    private final InjectorCache methodInjectors;
+    // Built by the first evaluation, so that a failure to build it is reported by the test
+    private volatile MethodInvoker methodInvoker;
 
     InjectedStatement(FrameworkMethod method, Object test, Injector injector) {
+        this(method, test, injector, InjectorCache.getInstance());
+    }
+
+    /**
+     * @param methodInjectors The {@link InjectorCache} holding the injectors of the methods using
+     *                        {@link UseModules}.
+     */
+    InjectedStatement(FrameworkMethod method, Object test, Injector injector, InjectorCache methodInjectors) {
         this.method = method;
         this.test = test;
         this.injector = injector;
+        this.injectorIndex = null;
+        this.methodInjectors = methodInjectors;
+    }
+
+    /**
+     * @param injectorIndex The {@link InjectorIndex} holding the {@link MethodInvoker} of the method,
+     *                      which must not use {@link UseModules}.
+     */
+    InjectedStatement(FrameworkMethod method, Object test, InjectorIndex injectorIndex) {
+        this.method = method;
+        this.test = test;
+        this.injector = null;
+        this.injectorIndex = injectorIndex;
+        this.methodInjectors = null;
     }
 
     @Override
     public void evaluate() throws Throwable {
-        Method javaMethod = method.getMethod();
-        Injector methodInjector = injector;
+        MethodInvoker invoker = methodInvoker;
+        if (invoker == null) {
+            invoker = createMethodInvoker();
+            methodInvoker = invoker;
+        }
+
+        List<AllParameter.Value> values;
+        if (method instanceof InjectedFrameworkMethod) {
+            values = ((InjectedFrameworkMethod) method).getValuesToUseForParameters();
+        } else {
+            values = Collections.emptyList();
+        }
+        invoker.invoke(test, values);
+    }
 
+    private MethodInvoker createMethodInvoker() throws InstantiationException, IllegalAccessException {
+        Method javaMethod = method.getMethod();
+        if (injectorIndex != null) {
+            return injectorIndex.getInvoker(javaMethod);
+        }
         UseModules useModules = javaMethod.getAnnotation(UseModules.class);
         if (useModules != null) {
-            Class<? extends Module>[] moduleClasses = useModules.value();
-            final Module[] modules = new Module[moduleClasses.length];
-            for (int i = 0; i < modules.length; i++) {
-                modules[i] = moduleClasses[i].newInstance();
-            }
-            TestModule jukitoModule;
-            if (useModules.autoBindMocks()) {
-                jukitoModule = new JukitoModule() {
-                    @Override
-                    protected void configureTest() {
-                        for (Module m : modules) {
-                            install(m);
-                        }
-                    }
-                };
-            } else {
-                jukitoModule = new TestModule() {
-                    @Override
-                    protected void configureTest() {
-                        for (Module m : modules) {
-                            install(m);
-                        }
-                    }
-                };
-            }
-            methodInjector = Guice.createInjector(jukitoModule);
+            return getMethodInjector(useModules, methodInjectors).getInvoker(javaMethod);
         }
+        return new MethodInvoker(javaMethod, injector);
+    }
 
-        Errors errors = new Errors(javaMethod);
-        List<Key<?>> keys = GuiceUtils.getMethodKeys(javaMethod, errors);
-        errors.throwConfigurationExceptionIfErrorsExist();
-
-        Iterator<Binding<?>> bindingIter;
-        if (InjectedFrameworkMethod.class.isAssignableFrom(method.getClass())) {
-            bindingIter = ((InjectedFrameworkMethod) method).getBindingsToUseForParameters().iterator();
-        } else {
-            bindingIter = new ArrayList<Binding<?>>().iterator();
+    /**
+     * Method-level injectors only depend on the modules listed in {@link UseModules}, they are
+     * built once per distinct set of modules and shared, with their {@link InjectorIndex}, through
+     * {@code cache}.
+     */
+    private static InjectorIndex getMethodInjector(UseModules useModules, InjectorCache cache)
+            throws InstantiationException, IllegalAccessException {
+        Set<Class<? extends Module>> moduleClasses = new LinkedHashSet<>(Arrays.asList(useModules.value()));
+        InjectorCache.Fingerprint fingerprint = new InjectorCache.Fingerprint(null, InjectedStatement.class,
+                moduleClasses, useModules.autoBindMocks(), Collections.<Key<?>>emptySet());
+        InjectorIndex methodInjector = cache.get(fingerprint);
+        if (methodInjector != null) {
+            return methodInjector;
         }
 
-        List<Object> injectedParameters = new ArrayList<Object>();
-        for (Key<?> key : keys) {
-            if (!All.class.equals(key.getAnnotationType())) {
-                injectedParameters.add(methodInjector.getInstance(key));
-            } else {
-                if (!bindingIter.hasNext()) {
-                    throw new AssertionError("Expected more bindings to fill @All parameters.");
+        final Module[] modules = new Module[moduleClasses.size()];
+        int i = 0;
+        for (Class<? extends Module> moduleClass : moduleClasses) {
+            modules[i++] = moduleClass.newInstance();
+        }
+        TestModule jukitoModule;
+        if (useModules.autoBindMocks()) {
+            jukitoModule = new JukitoModule() {
+                @Override
+                protected void configureTest() {
+                    for (Module m : modules) {
+                        install(m);
+                    }
+                }
+            };
+        } else {
+            jukitoModule = new TestModule() {
+                @Override
+                protected void configureTest() {
+                    for (Module m : modules) {
+                        install(m);
+                    }
                 }
-                injectedParameters.add(methodInjector.getInstance(bindingIter.next().getKey()));
-            }
+            };
         }
-
-        method.invokeExplosively(test, injectedParameters.toArray());
+        Injector newInjector;
+        TestScope.Slots previousSlots = TestScope.enterInjector(new TestScope.Slots());
+        try {
+            newInjector = Guice.createInjector(jukitoModule);
+        } finally {
+            TestScope.exitInjector(previousSlots);
+        }
+        return cache.putIfAbsent(fingerprint, new InjectorIndex(newInjector));
     }
 }
@@ -0,0 +1,157 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.inject.Key;
+import com.google.inject.Module;
+
+/**
+ * A process-wide cache of the injectors built by {@link JukitoRunner}. Test classes resolving
+ * to the same {@link Fingerprint} share a single injector and its {@link InjectorIndex},
+ * test-scoped singletons are still reset before every test.
+ * <p/>
+ * Sharing is opt-in: the instances of the {@code Singleton} scope and the eager singletons of
+ * a shared injector are shared too, so state can leak from one test class to the next. The cache
+ * keeps at most {@code jukito.injectorCacheSize} injectors and evicts the least recently used one
+ * when it grows beyond that. The default size of {@code 0} disables the cache.
+ */
+class InjectorCache {
+
+    static final String SIZE_PROPERTY = "jukito.injectorCacheSize";
+
+    private static final int DEFAULT_SIZE = 0;
+
+    private static final InjectorCache INSTANCE = new InjectorCache(null);
+
+    /**
+     * Identifies everything an injector built for a test class depends on: the runner building it,
+     * the class of the {@link TestModule}, the modules coming from {@link UseModules}, whether mocks
+     * are bound automatically, and the keys injected in the test class (its injection roots).
+     */
+    static class Fingerprint {
+        private final Class<?> runnerClass;
+        private final Class<?> testModuleClass;
+        private final Set<Class<? extends Module>> moduleClasses;
+        private final boolean autoBindMocks;
+        private final Set<Key<?>> injectionRoots;
+        private final int hashCode;
+
+        Fingerprint(Class<?> runnerClass, Class<?> testModuleClass,
+                Set<Class<? extends Module>> moduleClasses, boolean autoBindMocks,
+                Set<Key<?>> injectionRoots) {
+            this.runnerClass = runnerClass;
+            this.testModuleClass = testModuleClass;
+            this.moduleClasses = moduleClasses;
+            this.autoBindMocks = autoBindMocks;
+            this.injectionRoots = injectionRoots;
+
+            int result = runnerClass == null ? 0 : runnerClass.hashCode();
+            result = 31 * result + testModuleClass.hashCode();
+            result = 31 * result + moduleClasses.hashCode();
+            result = 31 * result + (autoBindMocks ? 1 : 0);
+            result = 31 * result + injectionRoots.hashCode();
+            hashCode = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Fingerprint)) {
+                return false;
+            }
+            Fingerprint other = (Fingerprint) o;
+            return hashCode == other.hashCode
+                    && runnerClass == other.runnerClass
+                    && testModuleClass == other.testModuleClass
+                    && autoBindMocks == other.autoBindMocks
+                    && moduleClasses.equals(other.moduleClasses)
+                    && injectionRoots.equals(other.injectionRoots);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private final Integer maxSize;
+    private final Map<Fingerprint, InjectorIndex> injectors;
+
+    /**
+     * @param maxSize The number of injectors to keep, or {@code null} to read it from
+     *                {@link #SIZE_PROPERTY} every time it is needed.
+     */
+    InjectorCache(Integer maxSize) {
+        this.maxSize = maxSize;
+        this.injectors = new LinkedHashMap<Fingerprint, InjectorIndex>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Fingerprint, InjectorIndex> eldest) {
+                return size() > getMaxSize();
+            }
+        };
+    }
+
+    static InjectorCache getInstance() {
+        return INSTANCE;
+    }
+
+    boolean isEnabled() {
+        return getMaxSize() > 0;
+    }
+
+    private int getMaxSize() {
+        return maxSize == null ? Integer.getInteger(SIZE_PROPERTY, DEFAULT_SIZE) : maxSize;
+    }
+
+    /**
+     * @param fingerprint The {@link Fingerprint} of the desired injector.
+     * @return The {@link InjectorIndex} of the cached injector, or {@code null} if none was cached
+     * for that fingerprint.
+     */
+    synchronized InjectorIndex get(Fingerprint fingerprint) {
+        return injectors.get(fingerprint);
+    }
+
+    /**
+     * Caches an injector unless another one was cached for the same fingerprint in the meantime.
+     *
+     * @param fingerprint The {@link Fingerprint} of the injector.
+     * @param index       The {@link InjectorIndex} of the newly built injector.
+     * @return The {@link InjectorIndex} of the injector that should be used for that fingerprint.
+     */
+    synchronized InjectorIndex putIfAbsent(Fingerprint fingerprint, InjectorIndex index) {
+        if (!isEnabled()) {
+            return index;
+        }
+        InjectorIndex cached = injectors.get(fingerprint);
+        if (cached != null) {
+            return cached;
+        }
+        injectors.put(fingerprint, index);
+        return index;
+    }
+
+    synchronized int size() {
+        return injectors.size();
+    }
+}
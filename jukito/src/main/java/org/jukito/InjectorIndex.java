@@ -0,0 +1,165 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.inject.Binding;
+import com.google.inject.Injector;
+import com.google.inject.Provider;
+import com.google.inject.Scope;
+import com.google.inject.TypeLiteral;
+import com.google.inject.spi.DefaultBindingScopingVisitor;
+
+/**
+ * Information about an injector that {@link JukitoRunner} needs for every test, computed once
+ * instead of being looked up again before each test. The {@link InjectorCache} keeps the index
+ * next to its injector, so the test classes sharing an injector also share its index.
+ */
+class InjectorIndex {
+
+    /**
+     * The type and the {@link All} name of a parameter.
+     */
+    private static class AllKey {
+        private final TypeLiteral<?> type;
+        private final String name;
+
+        AllKey(TypeLiteral<?> type, String name) {
+            this.type = type;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof AllKey)) {
+                return false;
+            }
+            AllKey other = (AllKey) o;
+            return type.equals(other.type) && name.equals(other.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + name.hashCode();
+        }
+    }
+
+    private final Injector injector;
+    private final List<Provider<?>> eagerSingletonProviders;
+    private final ConcurrentMap<AllKey, List<Binding<?>>> allBindings = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Method, MethodInvoker> invokers = new ConcurrentHashMap<>();
+
+    InjectorIndex(Injector injector) {
+        this.injector = injector;
+        this.eagerSingletonProviders = findEagerSingletonProviders(injector);
+    }
+
+    Injector getInjector() {
+        return injector;
+    }
+
+    /**
+     * @param type The type of an {@link All} parameter.
+     * @param name The name of its {@link All} annotation.
+     * @return The bindings matching the parameter, in the order they were bound. The returned list
+     * is computed once for every type and name, and supports fast random access.
+     */
+    List<Binding<?>> getAllBindings(TypeLiteral<?> type, String name) {
+        AllKey key = new AllKey(type, name);
+        List<Binding<?>> bindings = allBindings.get(key);
+        if (bindings == null) {
+            bindings = findAllBindings(type, name);
+            List<Binding<?>> existing = allBindings.putIfAbsent(key, bindings);
+            if (existing != null) {
+                bindings = existing;
+            }
+        }
+        return bindings;
+    }
+
+    /**
+     * @param method A test, {@literal @}Before or {@literal @}After method that does not use
+     *               {@link UseModules}.
+     * @return The {@link MethodInvoker} of the method, built once for the injector.
+     */
+    MethodInvoker getInvoker(Method method) {
+        MethodInvoker invoker = invokers.get(method);
+        if (invoker == null) {
+            invoker = new MethodInvoker(method, injector);
+            MethodInvoker existing = invokers.putIfAbsent(method, invoker);
+            if (existing != null) {
+                invoker = existing;
+            }
+        }
+        return invoker;
+    }
+
+    private List<Binding<?>> findAllBindings(TypeLiteral<?> type, String name) {
+        List<Binding<?>> result = new ArrayList<>();
+        for (Binding<?> binding : injector.findBindingsByType(type)) {
+            Annotation annotation = binding.getKey().getAnnotation();
+            if (annotation == null) {
+                // As TestModule.bindMany() annotates the bindings, the un-annotated bindings are typically unwanted
+                // mocks automatically bound by Jukito.
+                continue;
+            }
+            // If the annotation is with the default name bind all bindings, else bind only those bindings which
+            // have a key with the same name
+            if (All.DEFAULT.equals(name) || NamedUniqueAnnotations.matches(name, annotation)) {
+                result.add(binding);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * @return The providers of the bindings in the {@link TestScope#EAGER_SINGLETON} scope, in the
+     * order of their bindings.
+     */
+    List<Provider<?>> getEagerSingletonProviders() {
+        return eagerSingletonProviders;
+    }
+
+    private static List<Provider<?>> findEagerSingletonProviders(Injector injector) {
+        DefaultBindingScopingVisitor<Boolean> isEagerTestScopeSingleton =
+                new DefaultBindingScopingVisitor<Boolean>() {
+                    public Boolean visitScope(Scope scope) {
+                        return scope == TestScope.EAGER_SINGLETON;
+                    }
+                };
+        List<Provider<?>> providers = new ArrayList<>();
+        for (Binding<?> binding : injector.getBindings().values()) {
+            if (binding != null) {
+                Boolean result = binding.acceptScopingVisitor(isEagerTestScopeSingleton);
+                if (result != null && result) {
+                    providers.add(binding.getProvider());
+                }
+            }
+        }
+        if (providers.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(providers);
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * An {@link AllSource} pulling its values from an {@link Iterable}, typically one generating or
+ * reading them as it is iterated. Counting the values iterates once over the {@link Iterable}
+ * without keeping them. Values are then read by moving a single iterator forward, and kept once
+ * read, so that tests requesting them out of order, such as parallel ones, never restart the
+ * iteration. The values read stay in memory as long as the source.
+ * <p/>
+ * Example:
+ * <pre>
+ * bindManyFromSource(TestVector.class, new IterableAllSource&lt;&gt;(new Iterable&lt;TestVector&gt;() {
+ *     {@literal @}Override
+ *     public Iterator&lt;TestVector&gt; iterator() {
+ *         return new TestVectorReader("vectors.txt");
+ *     }
+ * }));</pre>
+ *
+ * @param <T> The type of the values.
+ */
+public class IterableAllSource<T> implements AllSource<T> {
+
+    private final Iterable<? extends T> iterable;
+
+    private final List<T> values = new ArrayList<>();
+    private int size = -1;
+    private Iterator<? extends T> cursor;
+
+    /**
+     * @param iterable The {@link Iterable} providing the values, it must iterate over the same
+     *                 values, in the same order, every time.
+     */
+    public IterableAllSource(Iterable<? extends T> iterable) {
+        this.iterable = iterable;
+    }
+
+    @Override
+    public synchronized int size() {
+        if (size < 0) {
+            int count = 0;
+            for (Iterator<? extends T> iterator = iterable.iterator(); iterator.hasNext(); iterator.next()) {
+                count++;
+            }
+            size = count;
+        }
+        return size;
+    }
+
+    @Override
+    public synchronized T get(int index) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+        if (cursor == null) {
+            cursor = iterable.iterator();
+        }
+        while (values.size() <= index) {
+            if (!cursor.hasNext()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + values.size());
+            }
+            values.add(cursor.next());
+        }
+        return values.get(index);
+    }
+}
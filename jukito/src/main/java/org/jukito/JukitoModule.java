@@ -26,20 +26,21 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Logger;
 
 import org.jukito.BindingsCollector.BindingInfo;
-import org.junit.After;
-import org.junit.Before;
-import org.junit.Test;
+import org.mockito.MockSettings;
 
+import com.google.inject.Binder;
 import com.google.inject.ConfigurationException;
 import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.MembersInjector;
+import com.google.inject.Module;
 import com.google.inject.Provider;
 import com.google.inject.Singleton;
 import com.google.inject.Stage;
@@ -47,10 +48,12 @@ import com.google.inject.TypeLiteral;
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.internal.Errors;
 import com.google.inject.internal.ProviderMethod;
-import com.google.inject.internal.ProviderMethodsModule;
 import com.google.inject.spi.Dependency;
+import com.google.inject.spi.Element;
+import com.google.inject.spi.Elements;
 import com.google.inject.spi.HasDependencies;
 import com.google.inject.spi.InjectionPoint;
+import com.google.inject.spi.ProviderInstanceBinding;
 
 /**
  * A guice {@link com.google.inject.Module Module} with a bit of syntactic sugar
@@ -70,6 +73,10 @@ public abstract class JukitoModule extends TestModule {
     private final List<Key<?>> keysNeedingTransitiveDependencies = new ArrayList<>();
     private final Map<Class<?>, Object> primitiveTypes = new HashMap<>();
 
+    private boolean recordingUserElements;
+    private List<Element> userElements = Collections.emptyList();
+    private List<Element> automaticElements = Collections.emptyList();
+
     public JukitoModule() {
         primitiveTypes.put(String.class, "");
         primitiveTypes.put(Integer.class, 0);
@@ -105,12 +112,80 @@ public abstract class JukitoModule extends TestModule {
         forceMock.add(klass);
     }
 
+    /**
+     * Records the elements configured by {@link #configureTest()} a single time. They are used to
+     * identify the bindings observed and are replayed when this module is configured, so that the
+     * modules installed by the test are instantiated and configured only once.
+     */
+    void recordUserElements() {
+        recordingUserElements = true;
+        try {
+            userElements = Elements.getElements(this);
+        } finally {
+            recordingUserElements = false;
+        }
+        BindingsCollector collector = new BindingsCollector(userElements);
+        collector.collectBindings();
+        setBindingsObserved(collector.getBindingsObserved());
+    }
+
+    /**
+     * @return All the elements configured by this module, both the ones recorded from
+     * {@link #configureTest()} and the ones bound automatically.
+     */
+    List<Element> getElements() {
+        List<Element> elements = new ArrayList<>(userElements.size() + automaticElements.size());
+        elements.addAll(userElements);
+        elements.addAll(automaticElements);
+        return elements;
+    }
+
     @Override
-    @SuppressWarnings({"unchecked", "rawtypes"})
     public final void configure() {
-        bindScopes();
-        configureTest();
+        if (recordingUserElements) {
+            bindScopes();
+            configureTest();
+            return;
+        }
+
+        if (userElements.isEmpty()) {
+            bindScopes();
+            configureTest();
+        } else {
+            replayUserElements();
+        }
+
+        automaticElements = Elements.getElements(new Module() {
+            @Override
+            public void configure(Binder binder) {
+                bindAutomatically(binder);
+            }
+        });
+        for (Element element : automaticElements) {
+            element.applyTo(binder());
+        }
+    }
+
+    private void replayUserElements() {
+        for (Element element : userElements) {
+            // Guice installs the provider methods of this module again
+            if (!isOwnProviderMethod(element)) {
+                element.applyTo(binder());
+            }
+        }
+    }
+
+    private boolean isOwnProviderMethod(Element element) {
+        if (element instanceof ProviderInstanceBinding) {
+            Object providerInstance = ((ProviderInstanceBinding<?>) element).getProviderInstance();
+            return providerInstance instanceof ProviderMethod
+                    && ((ProviderMethod<?>) providerInstance).getInstance() == this;
+        }
+        return false;
+    }
 
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void bindAutomatically(Binder binder) {
         Set<Key<?>> keysObserved = new HashSet<>(bindingsObserved.size());
         Set<Key<?>> keysNeeded = new HashSet<>(bindingsObserved.size());
 
@@ -131,52 +206,39 @@ public abstract class JukitoModule extends TestModule {
         }
 
         // registering keys build via @Provides methods in this module in the keysObserved set.
-        ProviderMethodsModule providerMethodsModule = (ProviderMethodsModule)
-                ProviderMethodsModule.forModule(this);
-
-        List<ProviderMethod<?>> providerMethodList = providerMethodsModule.getProviderMethods(binder());
-        for (ProviderMethod<?> providerMethod : providerMethodList) {
-            keysObserved.add(providerMethod.getKey());
-        }
+        keysObserved.addAll(MetadataCache.getProviderMethodKeys(this, binder));
 
         // Make sure needed keys from Guice bindings are bound as mock or to instances
         // (but not as test singletons)
         for (Key<?> keyNeeded : keysNeeded) {
-            addNeededKey(keysObserved, keysNeeded, keyNeeded, false);
+            addNeededKey(binder, keysObserved, keysNeeded, keyNeeded, false);
             keysNeedingTransitiveDependencies.add(keyNeeded);
         }
 
         // Preempt JIT binding by looking through the test class and any parent class
         // looking for methods annotated with @Test, @Before, or @After.
         // Concrete classes bound in this way are bound in @TestSingleton.
-        Class<?> currentClass = testClass;
-        while (currentClass != null) {
-            for (Method method : currentClass.getDeclaredMethods()) {
-                if (method.isAnnotationPresent(Test.class)
-                        || method.isAnnotationPresent(Before.class)
-                        || method.isAnnotationPresent(After.class)) {
-
-                    Errors errors = new Errors(method);
-                    List<Key<?>> keys = GuiceUtils.getMethodKeys(method, errors);
-
-                    for (Key<?> key : keys) {
-                        // Skip keys annotated with @All
-                        if (!All.class.equals(key.getAnnotationType())) {
-                            Key<?> keyNeeded = GuiceUtils.ensureProvidedKey(key, errors);
-                            addNeededKey(keysObserved, keysNeeded, keyNeeded, true);
-                        }
+        if (testClass != null) {
+            for (Method method : MetadataCache.getInjectedMethods(testClass)) {
+                Errors errors = new Errors(method);
+                List<Key<?>> keys = MetadataCache.getMethodKeys(method, errors);
+
+                for (Key<?> key : keys) {
+                    // Skip keys annotated with @All
+                    if (!All.class.equals(key.getAnnotationType())) {
+                        Key<?> keyNeeded = GuiceUtils.ensureProvidedKey(key, errors);
+                        addNeededKey(binder, keysObserved, keysNeeded, keyNeeded, true);
                     }
-                    errors.throwConfigurationExceptionIfErrorsExist();
                 }
+                errors.throwConfigurationExceptionIfErrorsExist();
             }
-            currentClass = currentClass.getSuperclass();
         }
 
         // Preempt JIT binding by looking through the test class looking for
         // fields and methods annotated with @Inject.
         // Concrete classes bound in this way are bound in @TestSingleton.
         if (testClass != null) {
-            Set<InjectionPoint> injectionPoints = InjectionPoint.forInstanceMethodsAndFields(testClass);
+            Set<InjectionPoint> injectionPoints = MetadataCache.getInstanceInjectionPoints(testClass);
 
             for (InjectionPoint injectionPoint : injectionPoints) {
                 Errors errors = new Errors(injectionPoint);
@@ -184,7 +246,7 @@ public abstract class JukitoModule extends TestModule {
                 for (Dependency<?> dependency : dependencies) {
                     Key<?> keyNeeded = GuiceUtils.ensureProvidedKey(dependency.getKey(),
                             errors);
-                    addNeededKey(keysObserved, keysNeeded, keyNeeded, true);
+                    addNeededKey(binder, keysObserved, keysNeeded, keyNeeded, true);
                 }
                 errors.throwConfigurationExceptionIfErrorsExist();
             }
@@ -193,10 +255,20 @@ public abstract class JukitoModule extends TestModule {
         // Recursively add the dependencies of all the bindings observed. Warning, we can't use for each here
         // since it would result into concurrency issues.
         for (int i = 0; i < keysNeedingTransitiveDependencies.size(); ++i) {
-            addDependencies(keysNeedingTransitiveDependencies.get(i), keysObserved, keysNeeded);
+            addDependencies(binder, keysNeedingTransitiveDependencies.get(i), keysObserved, keysNeeded);
         }
 
         // Bind all keys needed but not observed as mocks.
+        MockSettings mockSettings = getDefaultMockSettings();
+        MockPool mockPool = null;
+        if (recycleMocks()) {
+            // Spies and mocks with the settings of this module only go back to a pool of this
+            // injector, so that they are dropped with it
+            MockPool injectorPool = new MockPool();
+            recycleTestScopedSpies(injectorPool);
+            mockPool = mockSettings == null ? MockPool.getInstance() : injectorPool;
+        }
+        Set<Class<?>> mockedTypes = new LinkedHashSet<>();
         for (Key<?> key : keysNeeded) {
             Class<?> rawType = key.getTypeLiteral().getRawType();
             if (!keysObserved.contains(key) && !isCoreGuiceType(rawType)
@@ -204,13 +276,31 @@ public abstract class JukitoModule extends TestModule {
                 Object primitiveInstance = getDummyInstanceOfPrimitiveType(rawType);
                 if (primitiveInstance == null) {
                     if (rawType != Provider.class && !isInnerClass(rawType)) {
-                        bind(key).toProvider(new MockProvider(rawType)).in(TestScope.SINGLETON);
+                        binder.bind(key).toProvider(new MockProvider(rawType, mockSettings, mockPool)).in(TestScope.SINGLETON);
+                        mockedTypes.add(rawType);
                     }
                 } else {
-                    bindKeyToInstance(key, primitiveInstance);
+                    bindKeyToInstance(binder, key, primitiveInstance);
                 }
             }
         }
+
+        if (MockClassGenerator.isEnabled()) {
+            MockClassGenerator.getInstance().generate(mockedTypes);
+        }
+    }
+
+    /**
+     * Spies of immutable instances are recycled like the automatic mocks, as long as they are
+     * dropped after each test.
+     */
+    private void recycleTestScopedSpies(MockPool mockPool) {
+        for (BindingInfo bindingInfo : bindingsObserved) {
+            if (bindingInfo.testScoped
+                    && bindingInfo.boundInstance instanceof SpyImmutableInstanceProvider) {
+                ((SpyImmutableInstanceProvider<?>) bindingInfo.boundInstance).setMockPool(mockPool);
+            }
+        }
     }
 
     private boolean isInnerClass(Class<?> rawType) {
@@ -218,35 +308,46 @@ public abstract class JukitoModule extends TestModule {
     }
 
     @SuppressWarnings("unchecked")
-    private <T> void bindKeyToInstance(Key<T> key, Object primitiveInstance) {
-        bind(key).toInstance((T) primitiveInstance);
+    private <T> void bindKeyToInstance(Binder binder, Key<T> key, Object primitiveInstance) {
+        binder.bind(key).toInstance((T) primitiveInstance);
     }
 
-    private void addNeededKey(Set<Key<?>> keysObserved, Set<Key<?>> keysNeeded,
+    private void addNeededKey(Binder binder, Set<Key<?>> keysObserved, Set<Key<?>> keysNeeded,
             Key<?> keyNeeded, boolean asTestSingleton) {
         keysNeeded.add(keyNeeded);
-        bindIfConcrete(keysObserved, keyNeeded, asTestSingleton);
+        bindIfConcrete(binder, keysObserved, keyNeeded, asTestSingleton);
     }
 
-    private <T> void bindIfConcrete(Set<Key<?>> keysObserved,
+    private <T> void bindIfConcrete(Binder binder, Set<Key<?>> keysObserved,
             Key<T> key, boolean asTestSingleton) {
         TypeLiteral<?> typeToBind = key.getTypeLiteral();
         Class<?> rawType = typeToBind.getRawType();
         if (!keysObserved.contains(key) && canBeInjected(typeToBind)
                 && !shouldForceMock(rawType) && !isAssistedInjection(key)) {
 
-            // If an @Singleton annotation is present, force the bind as TestSingleton
-            if (asTestSingleton ||
+            // Class and suite singletons keep their scope. If an @Singleton annotation is present,
+            // force the bind as TestSingleton
+            if (hasSharedScopeAnnotation(rawType)) {
+                binder.bind(key);
+            } else if (asTestSingleton ||
                     rawType.getAnnotation(Singleton.class) != null) {
-                bind(key).in(TestScope.SINGLETON);
+                binder.bind(key).in(TestScope.SINGLETON);
             } else {
-                bind(key);
+                binder.bind(key);
             }
             keysObserved.add(key);
             keysNeedingTransitiveDependencies.add(key);
         }
     }
 
+    /**
+     * Classes annotated with a scope outliving the test keep their own scope.
+     */
+    private boolean hasSharedScopeAnnotation(Class<?> rawType) {
+        return rawType.getAnnotation(TestClassSingleton.class) != null
+                || rawType.getAnnotation(TestSuiteSingleton.class) != null;
+    }
+
     private boolean canBeInjected(TypeLiteral<?> type) {
         Class<?> rawType = type.getRawType();
         if (isPrimitive(rawType) || isCoreGuiceType(rawType) || !isInstantiable(rawType)) {
@@ -323,22 +424,22 @@ public abstract class JukitoModule extends TestModule {
                 || MembersInjector.class.isAssignableFrom(klass);
     }
 
-    private <T> void addDependencies(Key<T> key, Set<Key<?>> keysObserved,
+    private <T> void addDependencies(Binder binder, Key<T> key, Set<Key<?>> keysObserved,
             Set<Key<?>> keysNeeded) {
         TypeLiteral<T> type = key.getTypeLiteral();
         if (!canBeInjected(type)) {
             return;
         }
-        addInjectionPointDependencies(InjectionPoint.forConstructorOf(type),
+        addInjectionPointDependencies(binder, InjectionPoint.forConstructorOf(type),
                 keysObserved, keysNeeded);
         Set<InjectionPoint> methodsAndFieldsInjectionPoints =
                 InjectionPoint.forInstanceMethodsAndFields(type);
         for (InjectionPoint injectionPoint : methodsAndFieldsInjectionPoints) {
-            addInjectionPointDependencies(injectionPoint, keysObserved, keysNeeded);
+            addInjectionPointDependencies(binder, injectionPoint, keysObserved, keysNeeded);
         }
     }
 
-    private void addInjectionPointDependencies(InjectionPoint injectionPoint,
+    private void addInjectionPointDependencies(Binder binder, InjectionPoint injectionPoint,
             Set<Key<?>> keysObserved, Set<Key<?>> keysNeeded) {
         // Do not consider dependencies coming from optional injections
         if (injectionPoint.isOptional()) {
@@ -346,11 +447,11 @@ public abstract class JukitoModule extends TestModule {
         }
         for (Dependency<?> dependency : injectionPoint.getDependencies()) {
             Key<?> key = dependency.getKey();
-            addKeyDependency(key, keysObserved, keysNeeded);
+            addKeyDependency(binder, key, keysObserved, keysNeeded);
         }
     }
 
-    private void addKeyDependency(Key<?> key, Set<Key<?>> keysObserved,
+    private void addKeyDependency(Binder binder, Key<?> key, Set<Key<?>> keysObserved,
             Set<Key<?>> keysNeeded) {
         Key<?> newKey = key;
         if (Provider.class.equals(key.getTypeLiteral().getRawType())) {
@@ -364,7 +465,7 @@ public abstract class JukitoModule extends TestModule {
                 newKey = Key.get(providedType);
             }
         }
-        addNeededKey(keysObserved, keysNeeded, newKey, true);
+        addNeededKey(binder, keysObserved, keysNeeded, newKey, true);
     }
 
     /**
@@ -378,6 +479,18 @@ public abstract class JukitoModule extends TestModule {
         return null;
     }
 
+    /**
+     * Override and return {@code true} to reuse the automatically bound mocks from one test to the
+     * next instead of creating new ones. The mocks are reset after each test, so no stubbing or
+     * invocation is carried over. Mocks must not be used by a test once it has finished.
+     *
+     * @return {@code true} to recycle the mocks, by default the value of the
+     * {@code jukito.recycleMocks} system property.
+     */
+    public boolean recycleMocks() {
+        return Boolean.getBoolean(MockPool.RECYCLE_PROPERTY);
+    }
+
     /**
      * Outputs the report, see {@link #setReportWriter(Writer)}. Will not output anything if the
      * {@code reportWriter} is {@code null}. Do not call directly, it will be called by
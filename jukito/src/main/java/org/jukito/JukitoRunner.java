@@ -20,29 +20,37 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.NoTestsRemainException;
 import org.junit.runner.notification.RunNotifier;
 import org.junit.runners.BlockJUnit4ClassRunner;
 import org.junit.runners.model.FrameworkMethod;
 import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.MultipleFailureException;
 import org.junit.runners.model.Statement;
 
 import com.google.inject.Binding;
+import com.google.inject.ConfigurationException;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.Module;
-import com.google.inject.Scope;
+import com.google.inject.Provider;
 import com.google.inject.TypeLiteral;
 import com.google.inject.internal.Errors;
-import com.google.inject.spi.DefaultBindingScopingVisitor;
+import com.google.inject.spi.Dependency;
+import com.google.inject.spi.InjectionPoint;
+import com.google.inject.util.Types;
 
 /*
  * This class implements the mockito runner but allows Guice dependency
@@ -61,19 +69,46 @@ import com.google.inject.spi.DefaultBindingScopingVisitor;
  */
 public class JukitoRunner extends BlockJUnit4ClassRunner {
 
-    private Injector injector;
+    private final List<Filter> filters = new CopyOnWriteArrayList<>();
+    // The injectors of the methods using UseModules, when they are not shared with other test classes
+    private final InjectorCache methodInjectors = new InjectorCache(Integer.MAX_VALUE);
+    private volatile Injector injector;
+    private volatile InjectorIndex injectorIndex;
+    private volatile TestScope.Context classContext;
+    private volatile boolean parallelChildren;
+    private volatile List<FrameworkMethod> testPlan;
+    private volatile boolean runnableMethods;
+    // Only assigned by ensureInjector, which is synchronized
+    private Throwable injectorFailure;
+
+    // Only used by the thread running the children, when they do not run in parallel
+    private ParallelScheduler methodScheduler;
+    private Method scheduledMethod;
 
+    /**
+     * Creates a runner for the given test class. The injector is only created when the first test
+     * that was not filtered out or ignored runs, or when a method with {@link All} parameters
+     * needs to be expanded.
+     */
     public JukitoRunner(Class<?> klass) throws InitializationError,
             InvocationTargetException, InstantiationException, IllegalAccessException {
         super(klass);
-        ensureInjector();
+        useParallelScheduler(klass);
     }
 
     public JukitoRunner(Class<?> klass, Injector injector) throws InitializationError,
             InvocationTargetException, InstantiationException, IllegalAccessException {
-        // refactor needed here cos ensureInjector is run without reason here.
         super(klass);
         this.injector = injector;
+        useParallelScheduler(klass);
+    }
+
+    private void useParallelScheduler(Class<?> klass) {
+        ParallelScheduler scheduler = ParallelScheduler.forTestClass(klass);
+        if (scheduler != null) {
+            setScheduler(scheduler);
+            parallelChildren = true;
+        }
     }
 
     /**
@@ -87,32 +122,127 @@ public class JukitoRunner extends BlockJUnit4ClassRunner {
         return Guice.createInjector(testModule);
     }
 
-    private void ensureInjector()
+    /**
+     * Builds the injector once. When building it fails, the failure is kept and thrown again to
+     * the later tests rather than building the injector for each of them.
+     */
+    private synchronized void ensureInjector()
             throws InstantiationException, IllegalAccessException {
         if (injector != null) {
             return;
         }
+        if (injectorFailure != null) {
+            throwInjectorFailure();
+        }
+        // The fields are only assigned the injector that will be used, readers do not lock
+        InjectorIndex index;
+        try {
+            index = buildInjector();
+        } catch (InstantiationException | IllegalAccessException | RuntimeException | Error e) {
+            injectorFailure = e;
+            throw e;
+        }
+        injectorIndex = index;
+        injector = index.getInjector();
+    }
+
+    private void throwInjectorFailure() throws InstantiationException, IllegalAccessException {
+        Throwable failure = injectorFailure;
+        if (failure instanceof InstantiationException) {
+            throw (InstantiationException) failure;
+        } else if (failure instanceof IllegalAccessException) {
+            throw (IllegalAccessException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        throw (RuntimeException) failure;
+    }
+
+    /**
+     * @return The {@link InjectorIndex} of the injector of the test class, shared with the other
+     * test classes using the same injector.
+     */
+    private InjectorIndex buildInjector() throws InstantiationException, IllegalAccessException {
         Class<?> testClass = getTestClass().getJavaClass();
         TestModule testModule = getTestModule(testClass);
         testModule.setTestClass(testClass);
 
+        InjectorCache cache = InjectorCache.getInstance();
+        InjectorCache.Fingerprint fingerprint = null;
+        if (cache.isEnabled() && isCacheable(testModule)) {
+            fingerprint = getFingerprint(testClass, testModule);
+            InjectorIndex cached = cache.get(fingerprint);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
         JukitoModule jukitoModule = null; // Only non-null if it's a JukitoModule
         if (testModule instanceof JukitoModule) {
             jukitoModule = (JukitoModule) testModule;
 
-            // Create a module just for the purpose of collecting bindings
-            TestModule testModuleForCollection = getTestModule(testClass);
-            BindingsCollector collector = new BindingsCollector(testModuleForCollection);
-            collector.collectBindings();
-            jukitoModule.setBindingsObserved(collector.getBindingsObserved());
+            // Record the bindings once, they are replayed when the injector is created
+            jukitoModule.recordUserElements();
+        }
+        Injector newInjector;
+        TestScope.Slots previousSlots = TestScope.enterInjector(new TestScope.Slots());
+        try {
+            newInjector = this.createInjector(testModule);
+        } finally {
+            TestScope.exitInjector(previousSlots);
         }
-        injector = this.createInjector(testModule);
         if (jukitoModule != null && jukitoModule.getReportWriter() != null) {
             // An output report is desired
-            BindingsCollector collector = new BindingsCollector(jukitoModule);
+            BindingsCollector collector = new BindingsCollector(jukitoModule.getElements());
             collector.collectBindings();
             jukitoModule.printReport(collector.getBindingsObserved());
         }
+        InjectorIndex index = new InjectorIndex(newInjector);
+        if (fingerprint != null) {
+            return cache.putIfAbsent(fingerprint, index);
+        }
+        return index;
+    }
+
+    /**
+     * Injectors are shared between test classes, unless a report is desired since it is output
+     * while the injector is created.
+     */
+    private boolean isCacheable(TestModule testModule) {
+        return !(testModule instanceof JukitoModule)
+                || ((JukitoModule) testModule).getReportWriter() == null;
+    }
+
+    private InjectorCache.Fingerprint getFingerprint(Class<?> testClass, TestModule testModule) {
+        return new InjectorCache.Fingerprint(getClass(), testModule.getClass(),
+                getUseModuleClasses(testClass), getAutoBindMocksValue(testClass),
+                getInjectionRoots(testClass));
+    }
+
+    /**
+     * Collects the keys injected in the test class, its parent classes and the parameters of their
+     * {@code @Test}, {@code @Before} and {@code @After} methods. Errors are ignored here, they are
+     * reported when the injector is created.
+     *
+     * @param testClass the test class running
+     * @return set of injected keys
+     */
+    private Set<Key<?>> getInjectionRoots(Class<?> testClass) {
+        Set<Key<?>> roots = new HashSet<>();
+        for (Method method : MetadataCache.getInjectedMethods(testClass)) {
+            roots.addAll(MetadataCache.getMethodKeys(method, new Errors(method)));
+        }
+        try {
+            for (InjectionPoint injectionPoint : MetadataCache.getInstanceInjectionPoints(testClass)) {
+                for (Dependency<?> dependency : injectionPoint.getDependencies()) {
+                    roots.add(dependency.getKey());
+                }
+            }
+        } catch (ConfigurationException e) {
+            // The injector will fail to inject this class, never share it with other classes
+            roots.add(Key.get(testClass));
+        }
+        return roots;
     }
 
     private TestModule getTestModule(Class<?> testClass) throws InstantiationException, IllegalAccessException {
@@ -163,16 +293,8 @@ public class JukitoRunner extends BlockJUnit4ClassRunner {
 
     private TestModule getInnerClassModule(Class<?> testClass)
             throws InstantiationException, IllegalAccessException {
-        Class<?> currentClass = testClass;
-        while (currentClass != null) {
-            for (Class<?> innerClass : currentClass.getDeclaredClasses()) {
-                if (TestModule.class.isAssignableFrom(innerClass)) {
-                    return (TestModule) innerClass.newInstance();
-                }
-            }
-            currentClass = currentClass.getSuperclass();
-        }
-        return null;
+        Class<? extends TestModule> moduleClass = MetadataCache.getInnerModuleClass(testClass);
+        return moduleClass == null ? null : moduleClass.newInstance();
     }
 
     private boolean getAutoBindMocksValue(Class<?> testClass) {
@@ -223,176 +345,352 @@ public class JukitoRunner extends BlockJUnit4ClassRunner {
     @Override
     public void run(RunNotifier notifier) {
         // add listener that validates framework usage at the end of each test
-        notifier.addListener(new MockitoUsageValidator(notifier));
-        super.run(notifier);
+        MockitoUsageValidator validator = new MockitoUsageValidator(notifier);
+        notifier.addListener(validator);
+        try {
+            super.run(notifier);
+        } finally {
+            notifier.removeListener(validator);
+        }
+    }
+
+    /**
+     * Shares a {@link TestScope} context between the tests of the class, its class-scoped
+     * singletons are disposed of once all the tests have run. Its parent is the suite context of
+     * the test run notified by {@code notifier}.
+     */
+    @Override
+    protected Statement classBlock(RunNotifier notifier) {
+        final TestScope.Context suiteContext = SuiteScopeDisposer.register(notifier);
+        final Statement statement = super.classBlock(notifier);
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                computeTestMethods();
+                if (!runnableMethods) {
+                    // The @All parameters of every test method have no value
+                    throw new Exception("No runnable methods");
+                }
+                TestScope.Context context = TestScope.newClassContext(suiteContext);
+                classContext = context;
+                List<Throwable> errors = new ArrayList<>();
+                try {
+                    statement.evaluate();
+                } catch (Throwable t) {
+                    errors.add(t);
+                } finally {
+                    classContext = null;
+                    errors.addAll(context.close());
+                }
+                MultipleFailureException.assertEmpty(errors);
+            }
+        };
+    }
+
+    /**
+     * Runs every test in its own {@link TestScope} context, so that tests running concurrently
+     * do not share their test-scoped singletons.
+     */
+    @Override
+    protected void runChild(final FrameworkMethod method, final RunNotifier notifier) {
+        Parallel parallel = method.getAnnotation(Parallel.class);
+        if (parallelChildren) {
+            runChildInContext(method, notifier);
+        } else if (parallel == null) {
+            finishParallelMethod();
+            runChildInContext(method, notifier);
+        } else {
+            // The combinations of a parallel method are consecutive children
+            if (!method.getMethod().equals(scheduledMethod)) {
+                finishParallelMethod();
+                methodScheduler = new ParallelScheduler(parallel.threads());
+                scheduledMethod = method.getMethod();
+            }
+            methodScheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    runChildInContext(method, notifier);
+                }
+            });
+        }
+    }
+
+    /**
+     * Waits for the combinations of the last {@link Parallel} method to finish.
+     */
+    private void finishParallelMethod() {
+        if (methodScheduler != null) {
+            methodScheduler.finished();
+            methodScheduler = null;
+            scheduledMethod = null;
+        }
+    }
+
+    @Override
+    protected Statement childrenInvoker(RunNotifier notifier) {
+        final Statement statement = super.childrenInvoker(notifier);
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                try {
+                    statement.evaluate();
+                } finally {
+                    finishParallelMethod();
+                }
+            }
+        };
+    }
+
+    private void runChildInContext(FrameworkMethod method, RunNotifier notifier) {
+        TestScope.Context context = classContext;
+        TestScope.Context previous = context == null ? TestScope.openContext() : TestScope.openContext(context);
+        try {
+            super.runChild(method, notifier);
+        } finally {
+            TestScope.closeContext(previous);
+        }
     }
 
     @Override
     protected Object createTest() throws Exception {
         TestScope.clear();
         instantiateEagerTestSingletons();
-        return injector.getInstance(getTestClass().getJavaClass());
+        return getInjector().getInstance(getTestClass().getJavaClass());
     }
 
     @Override
     protected Statement methodInvoker(FrameworkMethod method, Object test) {
-        return new InjectedStatement(method, test, injector);
+        return createInjectedStatement(method, test);
+    }
+
+    /**
+     * Methods using {@link UseModules} get their injector when they run, the others use the
+     * {@link MethodInvoker} built once for the injector of the test class. The injectors of the
+     * methods are shared by the whole test class, and by other test classes when the process-wide
+     * {@link InjectorCache} is enabled.
+     */
+    private InjectedStatement createInjectedStatement(FrameworkMethod method, Object test) {
+        if (method.getAnnotation(UseModules.class) != null) {
+            InjectorCache cache = InjectorCache.getInstance();
+            return new InjectedStatement(method, test, getInjector(), cache.isEnabled() ? cache : methodInjectors);
+        }
+        return new InjectedStatement(method, test, getInjectorIndex());
+    }
+
+    private List<Statement> createInjectedStatements(List<FrameworkMethod> methods, Object test) {
+        List<Statement> statements = new ArrayList<>(methods.size());
+        for (FrameworkMethod method : methods) {
+            statements.add(createInjectedStatement(method, test));
+        }
+        return statements;
     }
 
     @Override
     protected Statement withBefores(FrameworkMethod method, Object target,
             Statement statement) {
-        try {
-            ensureInjector();
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
         List<FrameworkMethod> befores = getTestClass().getAnnotatedMethods(
                 Before.class);
         return befores.isEmpty() ? statement : new InjectedBeforeStatements(statement,
-                befores, target, injector);
+                createInjectedStatements(befores, target));
     }
 
     @Override
     protected Statement withAfters(FrameworkMethod method, Object target,
             Statement statement) {
-        try {
-            ensureInjector();
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
         List<FrameworkMethod> afters = getTestClass().getAnnotatedMethods(
                 After.class);
         return afters.isEmpty() ? statement : new InjectedAfterStatements(statement,
-                afters, target, injector);
+                createInjectedStatements(afters, target));
     }
 
+    /**
+     * Remembers the filter so that methods with {@link All} parameters it excludes are never
+     * expanded, in case the test methods have not been computed yet.
+     * <p/>
+     * JUnit copies the children into a list when filtering or sorting them, so every combination
+     * of the expanded methods is then created, including the ones of reduced and parallel methods
+     * that the filter excludes.
+     */
+    @Override
+    public void filter(Filter filter) throws NoTestsRemainException {
+        filters.add(filter);
+        super.filter(filter);
+    }
+
+    /**
+     * The test plan is computed once and cannot be modified, every later call returns the same list.
+     * The combinations of {@link All} parameters are not built here, the returned list creates them
+     * when they are accessed. JUnit still accesses all of them to describe the runner, and keeps
+     * them once it {@link #filter filters} or sorts the children.
+     */
     @Override
     protected List<FrameworkMethod> computeTestMethods() {
-        try {
-            ensureInjector();
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+        List<FrameworkMethod> plan = testPlan;
+        if (plan == null) {
+            synchronized (this) {
+                plan = testPlan;
+                if (plan == null) {
+                    plan = planTestMethods();
+                    testPlan = plan;
+                }
+            }
         }
+        return plan;
+    }
+
+    private List<FrameworkMethod> planTestMethods() {
         List<FrameworkMethod> testMethods = getTestClass().getAnnotatedMethods(Test.class);
-        List<FrameworkMethod> result = new ArrayList<>(testMethods.size());
+        List<List<FrameworkMethod>> result = new ArrayList<>(testMethods.size());
+        Shard shard = Shard.fromSystemProperties();
+        // Counted before sharding, a shard may legitimately get none of them
+        boolean runnable = false;
         for (FrameworkMethod method : testMethods) {
             Method javaMethod = method.getMethod();
             Errors errors = new Errors(javaMethod);
-            List<Key<?>> keys = GuiceUtils.getMethodKeys(javaMethod, errors);
+            List<Key<?>> keys = MetadataCache.getMethodKeys(javaMethod, errors);
             errors.throwConfigurationExceptionIfErrorsExist();
 
-            List<List<Binding<?>>> bindingsToUseForParameters = new ArrayList<>();
+            String methodId = getTestClass().getJavaClass().getName() + "#" + javaMethod.getName();
+            if (!hasAllParameter(keys) || !shouldExpand(method)) {
+                runnable = true;
+                if (shard != null && !shard.contains(methodId)) {
+                    continue;
+                }
+                // No combination to compute, so the injector is not needed yet
+                result.add(Collections.<FrameworkMethod>singletonList(
+                        new InjectedFrameworkMethod(javaMethod, Collections.<Binding<?>>emptyList())));
+                continue;
+            }
+
+            List<AllParameter> parameters = new ArrayList<>();
             for (Key<?> key : keys) {
                 if (All.class.equals(key.getAnnotationType())) {
                     All allAnnotation = (All) key.getAnnotation();
                     TypeLiteral<?> typeLiteral = key.getTypeLiteral();
                     List<Binding<?>> bindings = getBindingsForParameterWithAllAnnotation(allAnnotation, typeLiteral);
-                    bindingsToUseForParameters.add(bindings);
+                    List<Binding<?>> sources = getBindingsForParameterWithAllAnnotation(allAnnotation,
+                            TypeLiteral.get(Types.newParameterizedType(AllSource.class, typeLiteral.getType())));
+                    parameters.add(new AllParameter(bindings, sources));
                 }
             }
-            // Add an injected method for every combination of binding
-            addAllBindingAssignations(bindingsToUseForParameters, 0,
-                    new ArrayList<Binding<?>>(bindingsToUseForParameters.size()),
-                    javaMethod, result);
+            // Add an injected method for every combination of values
+            // Combinations running concurrently are told apart by their identifier
+            boolean identified = parallelChildren || method.getAnnotation(Parallel.class) != null;
+            AllCombinations combinations = new AllCombinations(javaMethod, parameters,
+                    getCombinationsAnnotation(method), identified);
+            runnable |= combinations.size() > 0;
+            if (shard == null) {
+                result.add(combinations.asFrameworkMethods());
+            } else {
+                result.add(combinations.asFrameworkMethods(getShareOfCombinations(shard, methodId, combinations)));
+            }
         }
-        return result;
+        runnableMethods = runnable;
+        return new TestMethodList(result);
     }
 
-    @Override
-    protected String testName(FrameworkMethod method) {
-        org.jukito.Description annotation = method.getMethod().getAnnotation(org.jukito.Description.class);
-        if (annotation != null) {
-            return annotation.value();
-        } else {
-            return super.testName(method);
+    /**
+     * @return The indexes of the combinations belonging to {@code shard}.
+     */
+    private int[] getShareOfCombinations(Shard shard, String methodId, AllCombinations combinations) {
+        int[] indexes = new int[combinations.size()];
+        int count = 0;
+        for (int i = 0; i < combinations.size(); i++) {
+            if (shard.contains(methodId + combinations.getStableId(i))) {
+                indexes[count++] = i;
+            }
         }
+        return Arrays.copyOf(indexes, count);
     }
 
-    /**
-     * Computes a list of all bindings which match a {@link All} annotation.
-     *
-     * @param allAnnotation the annotation to match
-     * @param typeLiteral   the type of the bindings.
-     * @return the computed list.
-     */
-    private List<Binding<?>> getBindingsForParameterWithAllAnnotation(All allAnnotation, TypeLiteral<?> typeLiteral) {
-        List<Binding<?>> result = new ArrayList<>();
-        String bindingName = allAnnotation.value();
-        if (All.DEFAULT.equals(bindingName)) {
-            // If the annotation is with the default name bind all bindings
-            result.addAll(injector.findBindingsByType(typeLiteral));
-        } else {
-            // Else bind only those bindings which have a key with the same name
-            for (Binding<?> binding : injector.findBindingsByType(typeLiteral)) {
-                if (NamedUniqueAnnotations.matches(bindingName, binding.getKey().getAnnotation())) {
-                    result.add(binding);
-                }
+    private boolean hasAllParameter(List<Key<?>> keys) {
+        for (Key<?> key : keys) {
+            if (All.class.equals(key.getAnnotationType())) {
+                return true;
             }
         }
-        return result;
+        return false;
     }
 
     /**
-     * This method looks at all possible way to assign the bindings in
-     * {@code bindingsToUseForParameters}, starting at index {@code index}.
-     * If {@code index} is larger than the number of elements in {@code bindingsToUseForParameters}
-     * then the {@code currentAssignation} with {@javaMethod} is added to {@code result}.
-     *
-     * @param result
-     * @param javaMethod
-     * @param bindingsToUseForParameters
-     * @param index
-     * @param currentAssignation
+     * @return The {@link Combinations} of the method, or else of the test class, or {@code null}.
      */
-    private void addAllBindingAssignations(
-            List<List<Binding<?>>> bindingsToUseForParameters, int index,
-            List<Binding<?>> currentAssignation,
-            Method javaMethod, List<FrameworkMethod> result) {
-
-        if (index >= bindingsToUseForParameters.size()) {
-            List<Binding<?>> assignation = new ArrayList<>(currentAssignation.size());
-            assignation.addAll(currentAssignation);
-            result.add(new InjectedFrameworkMethod(javaMethod, assignation));
-            return;
+    private Combinations getCombinationsAnnotation(FrameworkMethod method) {
+        Combinations annotation = method.getAnnotation(Combinations.class);
+        if (annotation == null) {
+            annotation = getTestClass().getJavaClass().getAnnotation(Combinations.class);
         }
+        return annotation;
+    }
 
-        for (Binding<?> binding : bindingsToUseForParameters.get(index)) {
-            if (binding.getKey().getAnnotation() == null) {
-                // As TestModule.bindMany() annotates the bindings, the un-annotated bindings are typically unwanted
-                // mocks automatically bound by Jukito.
-                continue;
-            }
+    private boolean isReduced(FrameworkMethod method) {
+        Combinations annotation = getCombinationsAnnotation(method);
+        return annotation != null && annotation.value() != Combinations.Strategy.ALL;
+    }
 
-            currentAssignation.add(binding);
-            if (currentAssignation.size() != index + 1) {
-                throw new AssertionError("Size of currentAssignation list is wrong.");
+    /**
+     * Ignored methods and methods excluded by a filter are reported as a single child, without
+     * expanding their {@link All} parameters. Reduced and parallel methods are always expanded, since
+     * a filter can select one of their combinations by its identifier.
+     */
+    private boolean shouldExpand(FrameworkMethod method) {
+        if (isIgnored(method)) {
+            return false;
+        }
+        if (isReduced(method) || parallelChildren || method.getAnnotation(Parallel.class) != null) {
+            return true;
+        }
+        for (Filter filter : filters) {
+            if (!filter.shouldRun(describeChild(method))) {
+                return false;
             }
-            addAllBindingAssignations(bindingsToUseForParameters, index + 1,
-                    currentAssignation,
-                    javaMethod, result);
-            currentAssignation.remove(index);
         }
+        return true;
+    }
+
+    @Override
+    protected String testName(FrameworkMethod method) {
+        org.jukito.Description annotation = method.getMethod().getAnnotation(org.jukito.Description.class);
+        String name = annotation != null ? annotation.value() : super.testName(method);
+
+        String combinationId = getCombinationId(method);
+        return combinationId == null ? name : name + combinationId;
+    }
+
+    /**
+     * Combinations having an identifier get their own description, the descriptions of the other
+     * methods are shared by all the combinations of the same method.
+     */
+    @Override
+    protected org.junit.runner.Description describeChild(FrameworkMethod method) {
+        if (getCombinationId(method) == null) {
+            return super.describeChild(method);
+        }
+        return org.junit.runner.Description.createTestDescription(getTestClass().getJavaClass(),
+                testName(method), method.getAnnotations());
+    }
+
+    private String getCombinationId(FrameworkMethod method) {
+        if (method instanceof InjectedFrameworkMethod) {
+            return ((InjectedFrameworkMethod) method).getCombinationId();
+        }
+        return null;
+    }
+
+    /**
+     * Computes a list of all bindings which match a {@link All} annotation.
+     *
+     * @param allAnnotation the annotation to match
+     * @param typeLiteral   the type of the bindings.
+     * @return the computed list, shared by every parameter of the same type and name.
+     */
+    private List<Binding<?>> getBindingsForParameterWithAllAnnotation(All allAnnotation, TypeLiteral<?> typeLiteral) {
+        return getInjectorIndex().getAllBindings(typeLiteral, allAnnotation.value());
     }
 
     private void instantiateEagerTestSingletons() {
-        DefaultBindingScopingVisitor<Boolean> isEagerTestScopeSingleton =
-                new DefaultBindingScopingVisitor<Boolean>() {
-                    public Boolean visitScope(Scope scope) {
-                        return scope == TestScope.EAGER_SINGLETON;
-                    }
-                };
-        for (Binding<?> binding : injector.getBindings().values()) {
-            boolean instantiate = false;
-            if (binding != null) {
-                Boolean result = binding.acceptScopingVisitor(isEagerTestScopeSingleton);
-                if (result != null && result) {
-                    instantiate = true;
-                }
-            }
-            if (instantiate) {
-                binding.getProvider().get();
-            }
+        for (Provider<?> provider : getInjectorIndex().getEagerSingletonProviders()) {
+            provider.get();
         }
     }
 
@@ -407,7 +705,7 @@ public class JukitoRunner extends BlockJUnit4ClassRunner {
         validatePublicVoidMethods(Before.class, false, errors);
         validateTestMethods(errors);
 
-        if (computeTestMethods().size() == 0) {
+        if (getTestClass().getAnnotatedMethods(Test.class).isEmpty()) {
             errors.add(new Exception("No runnable methods"));
         }
     }
@@ -440,11 +738,39 @@ public class JukitoRunner extends BlockJUnit4ClassRunner {
     }
 
     /**
-     * Access the Guice injector.
+     * @return The {@link InjectorIndex} of the injector, built with the injector or, when the
+     * injector was given to the constructor, on first use.
+     */
+    InjectorIndex getInjectorIndex() {
+        InjectorIndex index = injectorIndex;
+        if (index == null) {
+            Injector currentInjector = getInjector();
+            synchronized (this) {
+                index = injectorIndex;
+                if (index == null) {
+                    index = new InjectorIndex(currentInjector);
+                    injectorIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Access the Guice injector, creating it if needed.
      *
      * @return The Guice {@link Injector}.
      */
     protected Injector getInjector() {
+        Injector result = injector;
+        if (result != null) {
+            return result;
+        }
+        try {
+            ensureInjector();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
         return injector;
     }
 }
@@ -0,0 +1,280 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * An {@link AllSource} reading its values from the records of a local file, one record per line,
+ * such as a CSV or NDJSON file. The file is memory-mapped: records are not copied on the heap, each
+ * one is only decoded, from a read-only view of the mapped bytes, when the test using it runs.
+ * Only the position of every record is kept in memory.
+ * <p/>
+ * Empty lines are skipped and a trailing {@code \r} is removed from every record. Files larger than
+ * 2GB are mapped in several segments, a single record must fit in 2GB.
+ * <p/>
+ * Example:
+ * <pre>
+ * MappedFileAllSource&lt;Request&gt; requests = new MappedFileAllSource&lt;&gt;(new File("requests.ndjson"),
+ *         new MappedFileAllSource.Decoder&lt;Request&gt;() {
+ *             {@literal @}Override
+ *             public Request decode(ByteBuffer record) {
+ *                 return Request.parse(record);
+ *             }
+ *         });
+ * bindManyFromSource(Request.class, requests);
+ * bindManyNamedFromSource(Request.class, "checkout", requests.select(ROUTE, "checkout"));</pre>
+ *
+ * @param <T> The type of the values.
+ */
+public class MappedFileAllSource<T> implements AllSource<T> {
+
+    /**
+     * Decodes a value from a record.
+     *
+     * @param <T> The type of the values.
+     */
+    public interface Decoder<T> {
+        /**
+         * @param record A read-only view of the bytes of the record, without its line terminator.
+         *               It is only valid during the call.
+         * @return The decoded value.
+         */
+        T decode(ByteBuffer record);
+    }
+
+    /**
+     * Decodes records as UTF-8 strings.
+     */
+    public static final Decoder<String> UTF_8_DECODER = new Decoder<String>() {
+        @Override
+        public String decode(ByteBuffer record) {
+            return StandardCharsets.UTF_8.decode(record).toString();
+        }
+    };
+
+    private static final int MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+
+    /**
+     * The mapped segments of the file, and where every record lies in them.
+     */
+    private static class Index {
+        private ByteBuffer[] segments = new ByteBuffer[0];
+        private int[] recordSegments = new int[64];
+        private int[] recordOffsets = new int[64];
+        private int[] recordLengths = new int[64];
+        private int size;
+
+        void addSegment(ByteBuffer segment) {
+            segments = Arrays.copyOf(segments, segments.length + 1);
+            segments[segments.length - 1] = segment;
+        }
+
+        void addRecord(int offset, int length) {
+            if (size == recordOffsets.length) {
+                int capacity = size * 2;
+                recordSegments = Arrays.copyOf(recordSegments, capacity);
+                recordOffsets = Arrays.copyOf(recordOffsets, capacity);
+                recordLengths = Arrays.copyOf(recordLengths, capacity);
+            }
+            recordSegments[size] = segments.length - 1;
+            recordOffsets[size] = offset;
+            recordLengths[size] = length;
+            size++;
+        }
+
+        ByteBuffer getRecord(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            ByteBuffer record = segments[recordSegments[index]].duplicate();
+            record.position(recordOffsets[index]);
+            record.limit(recordOffsets[index] + recordLengths[index]);
+            return record.slice();
+        }
+    }
+
+    private final File file;
+    private final boolean skipHeader;
+    private final Decoder<? extends T> decoder;
+    private final int maxSegmentSize;
+
+    private volatile Index index;
+
+    /**
+     * @param file    The file to read.
+     * @param decoder The {@link Decoder} of the records.
+     */
+    public MappedFileAllSource(File file, Decoder<? extends T> decoder) {
+        this(file, false, decoder);
+    }
+
+    /**
+     * @param file       The file to read.
+     * @param skipHeader {@code true} if the first record is a header, such as the column names of a
+     *                   CSV file, and is not a value.
+     * @param decoder    The {@link Decoder} of the records.
+     */
+    public MappedFileAllSource(File file, boolean skipHeader, Decoder<? extends T> decoder) {
+        this(file, skipHeader, decoder, MAX_SEGMENT_SIZE);
+    }
+
+    MappedFileAllSource(File file, boolean skipHeader, Decoder<? extends T> decoder, int maxSegmentSize) {
+        this.file = file;
+        this.skipHeader = skipHeader;
+        this.decoder = decoder;
+        this.maxSegmentSize = maxSegmentSize;
+    }
+
+    @Override
+    public int size() {
+        return getIndex().size;
+    }
+
+    @Override
+    public T get(int index) {
+        return decoder.decode(getIndex().getRecord(index));
+    }
+
+    /**
+     * Selects the records having a given name, typically to bind them with
+     * {@link TestModule#bindManyNamedFromSource(Class, String, AllSource)} for the
+     * {@literal @}{@link All} parameters having that name.
+     *
+     * @param nameDecoder The {@link Decoder} reading the name of a record, for example from one of
+     *                    its columns.
+     * @param name        The name of the records to select.
+     * @return An {@link AllSource} of the selected records, in the order of the file. The records are
+     * selected when its size is first requested.
+     */
+    public AllSource<T> select(Decoder<String> nameDecoder, String name) {
+        return new Selection(nameDecoder, name);
+    }
+
+    private Index getIndex() {
+        Index result = index;
+        if (result == null) {
+            synchronized (this) {
+                result = index;
+                if (result == null) {
+                    try {
+                        result = buildIndex();
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Cannot read the records of " + file, e);
+                    }
+                    index = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private Index buildIndex() throws IOException {
+        Index result = new Index();
+        boolean headerSkipped = !skipHeader;
+        try (FileInputStream input = new FileInputStream(file);
+             FileChannel channel = input.getChannel()) {
+            long fileSize = channel.size();
+            long position = 0;
+            while (position < fileSize) {
+                int length = (int) Math.min(maxSegmentSize, fileSize - position);
+                ByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                result.addSegment(segment);
+
+                boolean lastSegment = position + length == fileSize;
+                int recordStart = 0;
+                for (int i = 0; i <= length; i++) {
+                    boolean endOfRecord = i == length ? lastSegment : segment.get(i) == '\n';
+                    if (!endOfRecord) {
+                        continue;
+                    }
+                    int recordEnd = i > recordStart && segment.get(i - 1) == '\r' ? i - 1 : i;
+                    if (recordEnd > recordStart) {
+                        if (headerSkipped) {
+                            result.addRecord(recordStart, recordEnd - recordStart);
+                        }
+                        headerSkipped = true;
+                    }
+                    recordStart = i + 1;
+                }
+
+                if (lastSegment) {
+                    break;
+                }
+                if (recordStart == 0) {
+                    throw new IOException("A record of " + file + " is longer than " + maxSegmentSize + " bytes.");
+                }
+                // The next segment starts with the record that did not fit in this one
+                position += recordStart;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The records of the file having a given name.
+     */
+    private class Selection implements AllSource<T> {
+        private final Decoder<String> nameDecoder;
+        private final String name;
+
+        private volatile int[] records;
+
+        Selection(Decoder<String> nameDecoder, String name) {
+            this.nameDecoder = nameDecoder;
+            this.name = name;
+        }
+
+        @Override
+        public int size() {
+            return getRecords().length;
+        }
+
+        @Override
+        public T get(int index) {
+            return MappedFileAllSource.this.get(getRecords()[index]);
+        }
+
+        private int[] getRecords() {
+            int[] result = records;
+            if (result == null) {
+                synchronized (this) {
+                    result = records;
+                    if (result == null) {
+                        Index fileIndex = getIndex();
+                        result = new int[fileIndex.size];
+                        int count = 0;
+                        for (int i = 0; i < fileIndex.size; i++) {
+                            if (name.equals(nameDecoder.decode(fileIndex.getRecord(i)))) {
+                                result[count++] = i;
+                            }
+                        }
+                        result = Arrays.copyOf(result, count);
+                        records = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.inject.Binder;
+import com.google.inject.Key;
+import com.google.inject.Module;
+import com.google.inject.internal.Errors;
+import com.google.inject.internal.ProviderMethod;
+import com.google.inject.internal.ProviderMethodsModule;
+import com.google.inject.spi.InjectionPoint;
+
+/**
+ * A process-wide cache of the reflective scans done on test classes and modules, so that they are
+ * done once per class rather than once per runner. The metadata of a class is attached to it
+ * through a {@link ClassValue}, it does not prevent the class from being unloaded.
+ * <p/>
+ * The injected methods and the inner module are cached for the class declaring them, so a base
+ * class shared by many test classes is only scanned once for them. The instance injection points
+ * are cached for the test class only: Guice resolves the overridden methods over the whole
+ * hierarchy, so each test class still scans its superclasses once.
+ * <p/>
+ * Scans reporting errors are not cached, they are done again so that every caller gets its errors.
+ */
+class MetadataCache {
+
+    /**
+     * The metadata of a single class, not including its superclasses.
+     */
+    private static class ClassMetadata {
+        private final List<Method> injectedMethods;
+        private final Class<? extends TestModule> innerModuleClass;
+        private final ConcurrentMap<Method, List<Key<?>>> methodKeys = new ConcurrentHashMap<>();
+        private volatile Set<InjectionPoint> instanceInjectionPoints;
+        private volatile List<Key<?>> providerMethodKeys;
+
+        ClassMetadata(Class<?> type) {
+            List<Method> methods = new ArrayList<>();
+            for (Method method : type.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(Test.class)
+                        || method.isAnnotationPresent(Before.class)
+                        || method.isAnnotationPresent(After.class)) {
+                    methods.add(method);
+                }
+            }
+            injectedMethods = Collections.unmodifiableList(methods);
+
+            Class<? extends TestModule> moduleClass = null;
+            for (Class<?> innerClass : type.getDeclaredClasses()) {
+                if (TestModule.class.isAssignableFrom(innerClass)) {
+                    moduleClass = innerClass.asSubclass(TestModule.class);
+                    break;
+                }
+            }
+            innerModuleClass = moduleClass;
+        }
+    }
+
+    private static final ClassValue<ClassMetadata> METADATA = new ClassValue<ClassMetadata>() {
+        @Override
+        protected ClassMetadata computeValue(Class<?> type) {
+            return new ClassMetadata(type);
+        }
+    };
+
+    private MetadataCache() {
+    }
+
+    /**
+     * @param testClass The test class.
+     * @return The methods annotated with {@code @Test}, {@code @Before} or {@code @After} declared
+     * in the test class and its superclasses, starting with the test class.
+     */
+    static List<Method> getInjectedMethods(Class<?> testClass) {
+        List<Method> methods = new ArrayList<>();
+        for (Class<?> currentClass = testClass; currentClass != null;
+                currentClass = currentClass.getSuperclass()) {
+            methods.addAll(METADATA.get(currentClass).injectedMethods);
+        }
+        return methods;
+    }
+
+    /**
+     * @param testClass The test class.
+     * @return The first {@link TestModule} declared as an inner class of the test class or of one of
+     * its superclasses, or {@code null} if there is none.
+     */
+    static Class<? extends TestModule> getInnerModuleClass(Class<?> testClass) {
+        for (Class<?> currentClass = testClass; currentClass != null;
+                currentClass = currentClass.getSuperclass()) {
+            Class<? extends TestModule> moduleClass = METADATA.get(currentClass).innerModuleClass;
+            if (moduleClass != null) {
+                return moduleClass;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Same as {@link InjectionPoint#forInstanceMethodsAndFields(Class)}, cached for {@code type}
+     * only, not for its superclasses.
+     */
+    static Set<InjectionPoint> getInstanceInjectionPoints(Class<?> type) {
+        ClassMetadata metadata = METADATA.get(type);
+        Set<InjectionPoint> injectionPoints = metadata.instanceInjectionPoints;
+        if (injectionPoints == null) {
+            // Throws a ConfigurationException, that is not cached, if the class cannot be injected
+            injectionPoints = InjectionPoint.forInstanceMethodsAndFields(type);
+            metadata.instanceInjectionPoints = injectionPoints;
+        }
+        return injectionPoints;
+    }
+
+    /**
+     * Same as {@link GuiceUtils#getMethodKeys(Method, Errors)}.
+     */
+    static List<Key<?>> getMethodKeys(Method method, Errors errors) {
+        ClassMetadata metadata = METADATA.get(method.getDeclaringClass());
+        List<Key<?>> keys = metadata.methodKeys.get(method);
+        if (keys == null) {
+            Errors methodErrors = new Errors(method);
+            keys = GuiceUtils.getMethodKeys(method, methodErrors);
+            if (methodErrors.hasErrors()) {
+                return GuiceUtils.getMethodKeys(method, errors);
+            }
+            keys = Collections.unmodifiableList(keys);
+            metadata.methodKeys.putIfAbsent(method, keys);
+        }
+        return keys;
+    }
+
+    /**
+     * @param module The module declaring {@code @Provides} methods.
+     * @param binder The binder to which errors in these methods are reported.
+     * @return The keys bound by the {@code @Provides} methods of the module, they only depend on its
+     * class.
+     */
+    static List<Key<?>> getProviderMethodKeys(Module module, Binder binder) {
+        ClassMetadata metadata = METADATA.get(module.getClass());
+        List<Key<?>> keys = metadata.providerMethodKeys;
+        if (keys == null) {
+            ProviderMethodsModule providerMethodsModule = (ProviderMethodsModule)
+                    ProviderMethodsModule.forModule(module);
+            List<Key<?>> providerMethodKeys = new ArrayList<>();
+            for (ProviderMethod<?> providerMethod : providerMethodsModule.getProviderMethods(binder)) {
+                providerMethodKeys.add(providerMethod.getKey());
+            }
+            keys = Collections.unmodifiableList(providerMethodKeys);
+            metadata.providerMethodKeys = keys;
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.junit.runners.model.FrameworkMethod;
+
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.internal.Errors;
+
+/**
+ * Invokes a test, {@literal @}Before or {@literal @}After method with injected parameters. Everything
+ * that does not depend on the test is done once: the keys of the parameters are read and their
+ * providers looked up in the injector. Only the values of the parameters are obtained for each
+ * call.
+ */
+class MethodInvoker {
+
+    private final FrameworkMethod method;
+    private final Injector injector;
+    private final Provider<?>[] providers;
+
+    /**
+     * @param method   The method to invoke.
+     * @param injector The injector providing its parameters.
+     */
+    MethodInvoker(Method method, Injector injector) {
+        this.method = new FrameworkMethod(method);
+        this.injector = injector;
+
+        Errors errors = new Errors(method);
+        List<Key<?>> keys = MetadataCache.getMethodKeys(method, errors);
+        errors.throwConfigurationExceptionIfErrorsExist();
+
+        providers = new Provider<?>[keys.size()];
+        for (int i = 0; i < providers.length; i++) {
+            Key<?> key = keys.get(i);
+            // The values of @All parameters depend on the combination
+            if (!All.class.equals(key.getAnnotationType())) {
+                providers[i] = injector.getProvider(key);
+            }
+        }
+    }
+
+    /**
+     * @param target    The test instance.
+     * @param allValues The values to use for the {@literal @}{@link All} parameters, in order.
+     */
+    void invoke(Object target, List<AllParameter.Value> allValues) throws Throwable {
+        Object[] arguments = new Object[providers.length];
+        int allIndex = 0;
+        for (int i = 0; i < arguments.length; i++) {
+            if (providers[i] != null) {
+                arguments[i] = providers[i].get();
+            } else {
+                if (allIndex >= allValues.size()) {
+                    throw new AssertionError("Expected more bindings to fill @All parameters.");
+                }
+                arguments[i] = allValues.get(allIndex++).resolve(injector);
+            }
+        }
+        method.invokeExplosively(target, arguments);
+    }
+}
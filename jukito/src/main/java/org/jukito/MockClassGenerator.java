@@ -0,0 +1,165 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Generates the classes of the mocks that {@link JukitoModule} binds automatically, on a small pool
+ * of background threads, as soon as they are known. The first test using a mock then finds its
+ * class in the Mockito cache instead of generating it on the test thread.
+ * <p/>
+ * Creating a mock initializes the mocked type, so generating the mock classes must not run static
+ * initializers, neither while the injector is built nor on a background thread. Only the classes
+ * of interfaces that declare no default method, nor inherit one, are generated in advance: their
+ * mocks do not initialize them. The other types are mocked, and initialized, by the first test
+ * using them. A failure of the generation is recorded and thrown again by the first
+ * {@link MockProvider} mocking that type.
+ * <p/>
+ * Set the {@code jukito.pregenerateMocks} system property to {@code false} to disable it.
+ * <p/>
+ * Depends on Mockito.
+ */
+class MockClassGenerator {
+
+    static final String PREGENERATE_PROPERTY = "jukito.pregenerateMocks";
+
+    private static final MockClassGenerator INSTANCE = new MockClassGenerator(createThreadPool());
+
+    private final Map<Class<?>, Boolean> submittedTypes =
+            Collections.synchronizedMap(new WeakHashMap<Class<?>, Boolean>());
+    private final Map<Class<?>, Throwable> failures =
+            Collections.synchronizedMap(new WeakHashMap<Class<?>, Throwable>());
+    private final Executor executor;
+    private volatile boolean failed;
+
+    /**
+     * @param executor The {@link Executor} generating the mock classes.
+     */
+    MockClassGenerator(Executor executor) {
+        this.executor = executor;
+    }
+
+    static MockClassGenerator getInstance() {
+        return INSTANCE;
+    }
+
+    static boolean isEnabled() {
+        return !"false".equalsIgnoreCase(System.getProperty(PREGENERATE_PROPERTY));
+    }
+
+    private static Executor createThreadPool() {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new GeneratorThreadFactory());
+        threadPool.allowCoreThreadTimeOut(true);
+        return threadPool;
+    }
+
+    /**
+     * Schedules the generation of the mock classes of the given types that can be mocked without
+     * being initialized, unless it was already scheduled.
+     */
+    void generate(Collection<Class<?>> types) {
+        for (final Class<?> type : types) {
+            if (!isMockedUninitialized(type) || submittedTypes.put(type, Boolean.TRUE) != null) {
+                continue;
+            }
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        mock(type);
+                    } catch (Throwable t) {
+                        recordFailure(type, t);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * @return {@code true} if a mock of {@code type} does not initialize it, that is if it is an
+     * interface without any default method in its hierarchy.
+     */
+    static boolean isMockedUninitialized(Class<?> type) {
+        if (!type.isInterface()) {
+            return false;
+        }
+        for (Method method : type.getDeclaredMethods()) {
+            int modifiers = method.getModifiers();
+            if (!Modifier.isAbstract(modifiers) && !Modifier.isStatic(modifiers)) {
+                return false;
+            }
+        }
+        for (Class<?> superInterface : type.getInterfaces()) {
+            if (!isMockedUninitialized(superInterface)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Throws the failure recorded while generating the mock class of {@code type}, if any. It is
+     * only thrown once, later mocks of that type fail on their own.
+     */
+    void rethrowFailure(Class<?> type) {
+        if (!failed) {
+            return;
+        }
+
+        Throwable failure = failures.remove(type);
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new RuntimeException(failure);
+        }
+    }
+
+    private void recordFailure(Class<?> type, Throwable failure) {
+        failures.put(type, failure);
+        failed = true;
+    }
+
+    private static class GeneratorThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "jukito-mock-generator-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+import org.mockito.MockSettings;
+import org.mockito.MockingDetails;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Recycles the mocks bound automatically by {@link JukitoModule} from one test to the next. A mock
+ * is leased to the running test, then reset and handed out again once the {@link TestScope}
+ * context of that test is closed, so that it carries no stubbing nor invocation over to the next
+ * test. Most automatic mocks only satisfy constructors and are never touched: those are handed
+ * out again as they are, without being reset.
+ * <p/>
+ * Recycling of automatic mocks is enabled by setting the {@code jukito.recycleMocks} system
+ * property to {@code true}, or by overriding {@link JukitoModule#recycleMocks()}. It then also
+ * applies to the spies of immutable instances, bound with {@link TestModule#bindSpy(Class, Object)}
+ * in the {@link TestSingleton} scope.
+ * <p/>
+ * The mocks created with the Mockito defaults are shared by the whole process through
+ * {@link #getInstance()}. Mocks created with the settings of a module, and spies of its instances,
+ * can only be interchanged with the ones of the same module: each injector gets its own pool for
+ * them, which is dropped with the injector.
+ * <p/>
+ * Depends on Mockito.
+ */
+class MockPool {
+
+    static final String RECYCLE_PROPERTY = "jukito.recycleMocks";
+
+    private static final MockPool INSTANCE = new MockPool();
+
+    /**
+     * Mocks are only interchangeable if they were created with the same settings, spies if they
+     * spy the same instance.
+     */
+    private static final class MockKind {
+        private final Class<?> type;
+        private final MockSettings settings;
+        private final Object spiedInstance;
+
+        MockKind(Class<?> type, MockSettings settings, Object spiedInstance) {
+            this.type = type;
+            this.settings = settings;
+            this.spiedInstance = spiedInstance;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof MockKind)) {
+                return false;
+            }
+            MockKind other = (MockKind) o;
+            return type == other.type && settings == other.settings
+                    && spiedInstance == other.spiedInstance;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = 31 * type.hashCode() + System.identityHashCode(settings);
+            return 31 * result + System.identityHashCode(spiedInstance);
+        }
+    }
+
+    private final ConcurrentMap<MockKind, Queue<Object>> idleMocks = new ConcurrentHashMap<>();
+    private final Map<Object, MockKind> leasedMocks = new IdentityHashMap<>();
+    private volatile boolean used;
+
+    /**
+     * @return The pool shared by the whole process, for the mocks created with the Mockito defaults.
+     */
+    static MockPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param type The {@link Class} to mock.
+     * @return An idle mock of that class, or a new one if there is none.
+     */
+    <T> T acquire(Class<T> type) {
+        return acquire(type, null);
+    }
+
+    /**
+     * @param type     The {@link Class} to mock.
+     * @param settings The {@link MockSettings} used to create the mock, the Mockito defaults are
+     *                 used if {@code null}.
+     * @return An idle mock of that class created with these settings, or a new one if there is none.
+     */
+    <T> T acquire(Class<T> type, MockSettings settings) {
+        MockKind kind = new MockKind(type, settings, null);
+        Object idleMock = getIdleMocks(kind).poll();
+        T leased;
+        if (idleMock != null) {
+            leased = type.cast(idleMock);
+        } else {
+            leased = settings == null ? mock(type) : mock(type, settings);
+        }
+        return lease(leased, kind);
+    }
+
+    /**
+     * @param instance The instance to spy, it must be immutable.
+     * @return An idle spy of that instance, or a new one if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T acquireSpy(T instance) {
+        MockKind kind = new MockKind(instance.getClass(), null, instance);
+        Object idleSpy = getIdleMocks(kind).poll();
+        return lease(idleSpy == null ? spy(instance) : (T) idleSpy, kind);
+    }
+
+    private <T> T lease(T leased, MockKind kind) {
+        if (TestScope.releaseAfterTest(leased, this)) {
+            used = true;
+            synchronized (leasedMocks) {
+                leasedMocks.put(leased, kind);
+            }
+        }
+        return leased;
+    }
+
+    /**
+     * Resets the given instance and makes it available to the next tests, if it was leased by this
+     * pool. Does nothing otherwise.
+     */
+    void release(Object instance) {
+        if (!used) {
+            return;
+        }
+
+        MockKind kind;
+        synchronized (leasedMocks) {
+            kind = leasedMocks.remove(instance);
+        }
+        if (kind != null) {
+            if (wasUsed(instance)) {
+                reset(instance);
+            }
+            getIdleMocks(kind).offer(instance);
+        }
+    }
+
+    /**
+     * @return {@code true} if the mock was invoked or stubbed since it was last reset.
+     */
+    private boolean wasUsed(Object mock) {
+        MockingDetails details = mockingDetails(mock);
+        return !details.getInvocations().isEmpty() || !details.getStubbings().isEmpty();
+    }
+
+    private Queue<Object> getIdleMocks(MockKind kind) {
+        Queue<Object> mocks = idleMocks.get(kind);
+        if (mocks == null) {
+            Queue<Object> newMocks = new ConcurrentLinkedQueue<>();
+            mocks = idleMocks.putIfAbsent(kind, newMocks);
+            if (mocks == null) {
+                mocks = newMocks;
+            }
+        }
+        return mocks;
+    }
+}
@@ -16,6 +16,8 @@
 
 package org.jukito;
 
+import org.mockito.MockSettings;
+
 import com.google.inject.Provider;
 
 import static org.mockito.Mockito.mock;
@@ -34,6 +36,8 @@ import static org.mockito.Mockito.mock;
 public class MockProvider<T> implements Provider<T> {
 
     private final Class<T> classToProvide;
+    private final MockSettings settings;
+    private final MockPool mockPool;
 
     /**
      * Construct a {@link Provider} that will return mocked objects of the specified types.
@@ -41,11 +45,43 @@ public class MockProvider<T> implements Provider<T> {
      * @param classToProvide The {@link Class} of the mock object to provide.
      */
     public MockProvider(Class<T> classToProvide) {
+        this(classToProvide, null, null);
+    }
+
+    /**
+     * Construct a {@link Provider} that will return mocked objects of the specified types.
+     *
+     * @param classToProvide The {@link Class} of the mock object to provide.
+     * @param settings       The {@link MockSettings} used to create the mocks, the Mockito defaults
+     *                       are used if {@code null}.
+     */
+    public MockProvider(Class<T> classToProvide, MockSettings settings) {
+        this(classToProvide, settings, null);
+    }
+
+    /**
+     * Construct a {@link Provider} that will return mocked objects of the specified types.
+     *
+     * @param classToProvide The {@link Class} of the mock object to provide.
+     * @param settings       The {@link MockSettings} used to create the mocks, the Mockito defaults
+     *                       are used if {@code null}.
+     * @param mockPool       The {@link MockPool} the mocks are taken from, or {@code null} to create
+     *                       a new mock each time. When pooled, they must be bound in the
+     *                       {@link TestScope#SINGLETON} scope, which gives them back to the pool
+     *                       after each test.
+     */
+    MockProvider(Class<T> classToProvide, MockSettings settings, MockPool mockPool) {
         this.classToProvide = classToProvide;
+        this.settings = settings;
+        this.mockPool = mockPool;
     }
 
     @Override
     public T get() {
-        return mock(classToProvide);
+        MockClassGenerator.getInstance().rethrowFailure(classToProvide);
+        if (mockPool != null) {
+            return mockPool.acquire(classToProvide, settings);
+        }
+        return settings == null ? mock(classToProvide) : mock(classToProvide, settings);
     }
 }
@@ -0,0 +1,60 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation can be used on a test class together with
+ * {@code @RunWith(JukitoRunner.class)} to run its test methods concurrently.
+ * Every test method gets its own test instance and its own
+ * {@link TestSingleton test-scoped singletons}.
+ * <p/>
+ * Example:
+ * <pre>
+ * {@literal @}RunWith(JukitoRunner.class)
+ * {@literal @}Parallel(threads = 4)
+ * public class MyTest {
+ *   {@literal @}Test
+ *   public void someTest(@All Value value) {
+ *   }
+ * }</pre>
+ *
+ * When used on a test method instead, only the combinations of its
+ * {@literal @}{@link All} parameters run concurrently, other test methods run one
+ * after the other. Each combination is reported under its own name, made of the
+ * indexes of its values, for example {@code someTest[0,3,1]}.
+ * <p/>
+ * Parallel execution can also be enabled for every test class by setting the
+ * {@code jukito.parallel} system property to {@code true}, the size of the pool
+ * is then read from {@code jukito.parallel.threads}.
+ */
+@Inherited
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Parallel {
+
+    /**
+     * The maximum number of test methods or combinations running at the same time. Uses the number
+     * of available processors when {@code 0}.
+     */
+    int threads() default 0;
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.runners.model.RunnerScheduler;
+
+/**
+ * Runs the children of a {@link JukitoRunner} on a bounded pool of worker threads.
+ * A new pool is started for every run and shut down once all children are finished.
+ */
+class ParallelScheduler implements RunnerScheduler {
+
+    static final String PARALLEL_PROPERTY = "jukito.parallel";
+    static final String THREADS_PROPERTY = "jukito.parallel.threads";
+
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+    private final int threads;
+    private ExecutorService executor;
+
+    ParallelScheduler(int threads) {
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * @param testClass The test class about to be run.
+     * @return A scheduler running the test methods of {@code testClass} concurrently, or {@code null}
+     * if they should run sequentially.
+     */
+    static ParallelScheduler forTestClass(Class<?> testClass) {
+        Parallel parallel = testClass.getAnnotation(Parallel.class);
+        if (parallel != null) {
+            return new ParallelScheduler(parallel.threads());
+        }
+        if (Boolean.getBoolean(PARALLEL_PROPERTY)) {
+            return new ParallelScheduler(Integer.getInteger(THREADS_PROPERTY, 0));
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized void schedule(Runnable childStatement) {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(threads, new WorkerThreadFactory());
+        }
+        // Workers are reused, the test context is handed over explicitly rather than inherited
+        executor.execute(TestScope.propagateContext(childStatement));
+    }
+
+    @Override
+    public void finished() {
+        ExecutorService finishedExecutor;
+        synchronized (this) {
+            finishedExecutor = executor;
+            executor = null;
+        }
+        if (finishedExecutor == null) {
+            return;
+        }
+
+        finishedExecutor.shutdown();
+        try {
+            finishedExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            finishedExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final int poolNumber = POOL_NUMBER.incrementAndGet();
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable,
+                    "jukito-parallel-" + poolNumber + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+/**
+ * The share of the tests to run in this JVM when a suite is split across several of them. Every
+ * test, down to each combination of {@literal @}{@link All} parameters, is assigned to a shard by a
+ * hash of its class, its method and the indexes of its values. The assignment does not depend on
+ * the JVM, so a test always lands on the same shard.
+ * <p/>
+ * Sharding is enabled by setting the {@code jukito.shardCount} system property to the number of
+ * shards, and {@code jukito.shardIndex} to the index of this shard, starting at {@code 0}.
+ */
+class Shard {
+
+    static final String INDEX_PROPERTY = "jukito.shardIndex";
+    static final String COUNT_PROPERTY = "jukito.shardCount";
+
+    private final int index;
+    private final int count;
+
+    Shard(int index, int count) {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("Invalid shard " + index + " of " + count + ".");
+        }
+        this.index = index;
+        this.count = count;
+    }
+
+    /**
+     * @return The shard configured by the system properties, or {@code null} if tests are not sharded.
+     */
+    static Shard fromSystemProperties() {
+        int count = Integer.getInteger(COUNT_PROPERTY, 1);
+        if (count <= 1) {
+            return null;
+        }
+        return new Shard(Integer.getInteger(INDEX_PROPERTY, 0), count);
+    }
+
+    /**
+     * @param testId The stable identifier of a test.
+     * @return {@code true} if the test belongs to this shard.
+     */
+    boolean contains(String testId) {
+        return (hash(testId) & Integer.MAX_VALUE) % count == index;
+    }
+
+    /**
+     * {@link String#hashCode()} is specified, hence identical in every JVM, but identifiers differing
+     * by their last characters get close hashes. They are mixed so that tests spread evenly.
+     */
+    static int hash(String testId) {
+        int hash = testId.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
@@ -16,22 +16,25 @@
 
 package org.jukito;
 
-import org.mockito.Mockito;
-
 import com.google.inject.Provider;
 
+import static org.mockito.Mockito.spy;
+
 /**
  * For use in classes where you want to create a spied instance, as in
  * {@link com.google.inject.binder.LinkedBindingBuilder#toInstance(T))},
  * except the instance is a spy.
  * <p/>
- * A new spy is returned each time this {@link Provider} is invoked, wrapping the
- * exact same instance class.
+ * A distinct spy is returned each time this {@link Provider} is invoked within a test, wrapping
+ * the exact same instance class. When mocks are recycled and the binding is in the
+ * {@link TestSingleton} scope, the spies are reset and handed out again by the {@link MockPool}
+ * in the following tests, instead of being created anew.
  * <p/>
  * <b>Important:</b> Spied object needs to be Immutable
  */
 class SpyImmutableInstanceProvider<T> implements Provider<T> {
     private final T instance;
+    private volatile MockPool mockPool;
 
     /**
      * Create a new {@link Provider} instance for use in creating spies of
@@ -47,10 +50,23 @@ class SpyImmutableInstanceProvider<T> implements Provider<T> {
     }
 
     /**
-     * Create a new spy of your bound instance.
+     * @param mockPool The {@link MockPool} the spies are taken from. The binding must then be in
+     *                 the {@link TestScope#SINGLETON} or {@link TestScope#EAGER_SINGLETON} scope,
+     *                 which gives them back to the pool after each test.
+     */
+    void setMockPool(MockPool mockPool) {
+        this.mockPool = mockPool;
+    }
+
+    /**
+     * Get a spy of your bound instance, without any stubbing or invocation.
      */
     @Override
     public T get() {
-        return Mockito.spy(instance);
+        MockPool pool = mockPool;
+        if (pool != null) {
+            return pool.acquireSpy(instance);
+        }
+        return spy(instance);
     }
 }
@@ -17,14 +17,23 @@
 package org.jukito;
 
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Set;
 
+import org.mockito.MockSettings;
+
 import com.google.inject.Key;
+import com.google.inject.MembersInjector;
 import com.google.inject.Provider;
+import com.google.inject.TypeLiteral;
 import com.google.inject.spi.Dependency;
 import com.google.inject.spi.HasDependencies;
+import com.google.inject.spi.InjectionPoint;
 
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.withSettings;
 
 /**
  * For use in test cases where an {@link Provider} is required to provide an
@@ -40,6 +49,9 @@ import static org.mockito.Mockito.spy;
 class SpyProvider<T> implements Provider<T>, HasDependencies {
 
     private final Provider<T> rawProvider;
+    private final Class<T> spiedClass;
+    private final MembersInjector<T> membersInjector;
+    private final MockSettings spySettings;
     private final Set<Dependency<?>> dependencies;
 
     /**
@@ -54,12 +66,42 @@ class SpyProvider<T> implements Provider<T>, HasDependencies {
      */
     SpyProvider(Provider<T> rawProvider, Key<T> relayingKey) {
         this.rawProvider = rawProvider;
+        this.spiedClass = null;
+        this.membersInjector = null;
+        this.spySettings = null;
         dependencies = Collections.<Dependency<?>>singleton(Dependency.get(relayingKey));
     }
 
+    /**
+     * Construct a {@link Provider} that will return spies of the specified type built in one step: the
+     * constructor, which must not take any parameter, runs on the spy itself, then its members are
+     * injected. No real instance is built and copied into a spy.
+     *
+     * @param type            The type to spy.
+     * @param membersInjector The {@link MembersInjector} injecting the fields and methods of that type.
+     */
+    @SuppressWarnings("unchecked")
+    SpyProvider(TypeLiteral<T> type, MembersInjector<T> membersInjector) {
+        this.rawProvider = null;
+        this.spiedClass = (Class<T>) type.getRawType();
+        this.membersInjector = membersInjector;
+        this.spySettings = withSettings().useConstructor().defaultAnswer(CALLS_REAL_METHODS);
+
+        Set<Dependency<?>> memberDependencies = new HashSet<>();
+        for (InjectionPoint injectionPoint : InjectionPoint.forInstanceMethodsAndFields(type)) {
+            memberDependencies.addAll(injectionPoint.getDependencies());
+        }
+        dependencies = Collections.unmodifiableSet(memberDependencies);
+    }
+
     @Override
     public T get() {
-        return spy(rawProvider.get());
+        if (rawProvider != null) {
+            return spy(rawProvider.get());
+        }
+        T spy = mock(spiedClass, spySettings);
+        membersInjector.injectMembers(spy);
+        return spy;
     }
 
     @Override
@@ -0,0 +1,75 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.junit.runner.Result;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
+
+/**
+ * Disposes of the {@link TestScope#SUITE_SINGLETON suite-scoped singletons} of a test run when it
+ * finishes. Each {@link RunNotifier} gets its own suite context and a single disposer, whatever the
+ * number of test classes it notifies about, so a test run nested in another one only disposes of
+ * its own instances.
+ */
+class SuiteScopeDisposer extends RunListener {
+
+    private static final Logger LOGGER = Logger.getLogger(SuiteScopeDisposer.class.getName());
+
+    private static final Map<RunNotifier, TestScope.Context> SUITE_CONTEXTS =
+            Collections.synchronizedMap(new WeakHashMap<RunNotifier, TestScope.Context>());
+
+    private final TestScope.Context suiteContext;
+
+    private SuiteScopeDisposer(TestScope.Context suiteContext) {
+        this.suiteContext = suiteContext;
+    }
+
+    /**
+     * @return The suite context of the test run notified by {@code notifier}.
+     */
+    static TestScope.Context register(RunNotifier notifier) {
+        synchronized (SUITE_CONTEXTS) {
+            TestScope.Context suiteContext = SUITE_CONTEXTS.get(notifier);
+            if (suiteContext == null) {
+                suiteContext = TestScope.newSuiteContext();
+                SUITE_CONTEXTS.put(notifier, suiteContext);
+                notifier.addListener(new SuiteScopeDisposer(suiteContext));
+            }
+            return suiteContext;
+        }
+    }
+
+    static void logDisposalErrors(List<Throwable> errors) {
+        for (Throwable t : errors) {
+            LOGGER.log(Level.WARNING, "Failed to dispose of a suite-scoped singleton", t);
+        }
+    }
+
+    @Override
+    public void testRunFinished(Result result) throws Exception {
+        // The run is over, failures can no longer be reported on a test
+        logDisposalErrors(TestScope.closeSuiteContext(suiteContext));
+    }
+}
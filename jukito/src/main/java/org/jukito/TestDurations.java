@@ -0,0 +1,103 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The time spent running each test class, recorded by {@link ForkingSuite} so that the longest
+ * classes can be started first on the next run. Durations are stored in milliseconds in a
+ * properties file, one entry per test class.
+ */
+class TestDurations {
+
+    private final File file;
+    private final Map<String, Long> previous = new HashMap<>();
+    private final Map<String, Long> recorded = new HashMap<>();
+
+    TestDurations(File file) {
+        this.file = file;
+    }
+
+    /**
+     * @return The durations read from {@code file}, or no durations if it cannot be read.
+     */
+    static TestDurations load(File file) {
+        TestDurations durations = new TestDurations(file);
+        if (file.isFile()) {
+            Properties properties = new Properties();
+            try (InputStream input = new FileInputStream(file)) {
+                properties.load(input);
+            } catch (IOException e) {
+                return durations;
+            }
+            for (String className : properties.stringPropertyNames()) {
+                try {
+                    durations.previous.put(className, Long.parseLong(properties.getProperty(className)));
+                } catch (NumberFormatException e) {
+                    // Ignore the entry, the class will be timed again
+                }
+            }
+        }
+        return durations;
+    }
+
+    /**
+     * @return The duration of the test class in the previous run, or {@code null} if it is unknown.
+     */
+    synchronized Long get(String className) {
+        return previous.get(className);
+    }
+
+    /**
+     * Adds the duration of a part of a test class to the duration recorded in this run.
+     */
+    synchronized void record(String className, long millis) {
+        Long total = recorded.get(className);
+        recorded.put(className, total == null ? millis : total + millis);
+    }
+
+    /**
+     * Writes the durations recorded in this run, keeping the previous duration of the classes that
+     * were not run.
+     */
+    synchronized void save() throws IOException {
+        Properties properties = new Properties();
+        for (Map.Entry<String, Long> entry : previous.entrySet()) {
+            properties.setProperty(entry.getKey(), entry.getValue().toString());
+        }
+        for (Map.Entry<String, Long> entry : recorded.entrySet()) {
+            properties.setProperty(entry.getKey(), entry.getValue().toString());
+        }
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        try (OutputStream output = new FileOutputStream(file)) {
+            properties.store(output, "Durations of the test classes, in milliseconds");
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.junit.runners.model.FrameworkMethod;
+
+/**
+ * The test methods of a test class, made of one list per method declared in the class. The
+ * lists are not copied, so the combinations of {@literal @}{@link All} parameters are only
+ * created when they are accessed.
+ */
+class TestMethodList extends AbstractList<FrameworkMethod> implements RandomAccess {
+
+    private final List<List<FrameworkMethod>> segments;
+    private final int[] offsets;
+    private final int size;
+
+    TestMethodList(List<List<FrameworkMethod>> segments) {
+        this.segments = segments;
+        this.offsets = new int[segments.size()];
+
+        long total = 0;
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = (int) total;
+            total += segments.get(i).size();
+            if (total > Integer.MAX_VALUE) {
+                throw new IllegalStateException("A test class cannot have more than "
+                        + Integer.MAX_VALUE + " test methods.");
+            }
+        }
+        size = (int) total;
+    }
+
+    @Override
+    public FrameworkMethod get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int segment = Arrays.binarySearch(offsets, index);
+        if (segment < 0) {
+            segment = -segment - 2;
+        } else {
+            // Skip the empty segments starting at the same offset
+            while (segments.get(segment).isEmpty()) {
+                segment++;
+            }
+        }
+        return segments.get(segment).get(index - offsets[segment]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -17,6 +17,9 @@
 package org.jukito;
 
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+
+import org.mockito.MockSettings;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Key;
@@ -25,6 +28,7 @@ import com.google.inject.binder.LinkedBindingBuilder;
 import com.google.inject.binder.ScopedBindingBuilder;
 import com.google.inject.name.Names;
 import com.google.inject.spi.InjectionPoint;
+import com.google.inject.util.Types;
 
 /**
  * A guice {@link com.google.inject.Module Module} with a bit of syntactic sugar to bind within
@@ -36,6 +40,9 @@ public abstract class TestModule extends AbstractModule {
 
     protected Class<?> testClass;
 
+    private MockSettings defaultMockSettings;
+    private boolean defaultMockSettingsComputed;
+
     /**
      * Attach the {@link TestModule} to a given test class.
      *
@@ -54,6 +61,8 @@ public abstract class TestModule extends AbstractModule {
     protected void bindScopes() {
         bindScope(TestSingleton.class, TestScope.SINGLETON);
         bindScope(TestEagerSingleton.class, TestScope.EAGER_SINGLETON);
+        bindScope(TestClassSingleton.class, TestScope.CLASS_SINGLETON);
+        bindScope(TestSuiteSingleton.class, TestScope.SUITE_SINGLETON);
     }
 
     /**
@@ -61,6 +70,37 @@ public abstract class TestModule extends AbstractModule {
      */
     protected abstract void configureTest();
 
+    /**
+     * Override and return the {@link MockSettings} to use for the mocks bound without explicit
+     * settings, including the ones bound automatically by {@link JukitoModule}. For example,
+     * {@code withSettings().stubOnly()} creates mocks that do not record their invocations, so
+     * that tests calling them many times use a constant amount of memory, but cannot be
+     * verified. It is only called once per module.
+     * <p/>
+     * When mocks are recycled, the mocks created with these settings are only handed out again to
+     * the tests using the same injector, since Mockito settings cannot be compared. Test classes
+     * only share an injector when the {@link InjectorCache} is enabled.
+     *
+     * @return The {@link MockSettings}, if {@code null} the Mockito defaults are used.
+     */
+    public MockSettings getMockSettings() {
+        return null;
+    }
+
+    /**
+     * @return The result of {@link #getMockSettings()}, computed once. The {@link MockPool} only
+     * recycles mocks created with the same settings instance, so all the mocks of this module
+     * share it. Returning a shared constant from {@link #getMockSettings()} is not enough to pool
+     * them across injectors, each injector has its own pool for them.
+     */
+    synchronized MockSettings getDefaultMockSettings() {
+        if (!defaultMockSettingsComputed) {
+            defaultMockSettings = getMockSettings();
+            defaultMockSettingsComputed = true;
+        }
+        return defaultMockSettings;
+    }
+
     /**
      * Binds an interface to a mocked version of itself. You will usually want to bind this in the
      * {@link TestSingleton} scope.
@@ -70,7 +110,21 @@ public abstract class TestModule extends AbstractModule {
      * @return A {@link ScopedBindingBuilder}.
      */
     protected <T> ScopedBindingBuilder bindMock(Class<T> klass) {
-        return bindNewMockProvider(Key.get(klass));
+        return bindNewMockProvider(Key.get(klass), getDefaultMockSettings());
+    }
+
+    /**
+     * Binds an interface to a mocked version of itself, created with the given settings. You will
+     * usually want to bind this in the {@link TestSingleton} scope.
+     *
+     * @param <T>      The type of the interface to bind
+     * @param klass    The class to bind
+     * @param settings The {@link MockSettings} used to create the mocks, for example
+     *                 {@code withSettings().stubOnly()}.
+     * @return A {@link ScopedBindingBuilder}.
+     */
+    protected <T> ScopedBindingBuilder bindMock(Class<T> klass, MockSettings settings) {
+        return bindNewMockProvider(Key.get(klass), settings);
     }
 
     /**
@@ -84,7 +138,21 @@ public abstract class TestModule extends AbstractModule {
      */
     protected <T> ScopedBindingBuilder bindMock(
             TypeLiteral<T> typeLiteral) {
-        return bindNewMockProvider(Key.get(typeLiteral));
+        return bindNewMockProvider(Key.get(typeLiteral), getDefaultMockSettings());
+    }
+
+    /**
+     * Binds a parameterized interface to a mocked version of itself, created with the given
+     * settings. You will usually want to bind this in the {@link TestSingleton} scope.
+     *
+     * @param <T>         The type of the interface to bind, a parameterized type
+     * @param typeLiteral The {@link TypeLiteral} corresponding to the parameterized type to bind.
+     * @param settings    The {@link MockSettings} used to create the mocks.
+     * @return A {@link ScopedBindingBuilder}.
+     */
+    protected <T> ScopedBindingBuilder bindMock(
+            TypeLiteral<T> typeLiteral, MockSettings settings) {
+        return bindNewMockProvider(Key.get(typeLiteral), settings);
     }
 
     /**
@@ -161,7 +229,23 @@ public abstract class TestModule extends AbstractModule {
      * @return A {@link ScopedBindingBuilder}.
      */
     protected <T> ScopedBindingBuilder bindNamedMock(Class<T> klass, String name) {
-        return bindNewMockProvider(Key.get(klass, Names.named(name)));
+        return bindNewMockProvider(Key.get(klass, Names.named(name)), getDefaultMockSettings());
+    }
+
+    /**
+     * Binds an interface annotated with a {@link com.google.inject.name.Named @Named} to a
+     * mocked version of itself, created with the given settings. You will usually want to bind
+     * this in the {@link TestSingleton} scope.
+     *
+     * @param <T>      The type of the interface to bind
+     * @param klass    The class to bind
+     * @param name     The name used with the {@link com.google.inject.name.Named @Named} annotation.
+     * @param settings The {@link MockSettings} used to create the mocks.
+     * @return A {@link ScopedBindingBuilder}.
+     */
+    protected <T> ScopedBindingBuilder bindNamedMock(Class<T> klass, String name,
+            MockSettings settings) {
+        return bindNewMockProvider(Key.get(klass, Names.named(name)), settings);
     }
 
     /**
@@ -176,7 +260,23 @@ public abstract class TestModule extends AbstractModule {
      */
     protected <T> ScopedBindingBuilder bindNamedMock(TypeLiteral<T> typeLiteral,
             String name) {
-        return bindNewMockProvider(Key.get(typeLiteral, Names.named(name)));
+        return bindNewMockProvider(Key.get(typeLiteral, Names.named(name)), getDefaultMockSettings());
+    }
+
+    /**
+     * Binds a parameterized interface annotated with a {@link com.google.inject.name.Named @Named}
+     * to a mocked version of itself, created with the given settings. You will usually want to
+     * bind this in the {@link TestSingleton} scope.
+     *
+     * @param <T>         The type of the interface to bind
+     * @param typeLiteral The {@link TypeLiteral} corresponding to the parameterized type to bind.
+     * @param name        The name used with the {@link com.google.inject.name.Named @Named} annotation.
+     * @param settings    The {@link MockSettings} used to create the mocks.
+     * @return A {@link ScopedBindingBuilder}.
+     */
+    protected <T> ScopedBindingBuilder bindNamedMock(TypeLiteral<T> typeLiteral,
+            String name, MockSettings settings) {
+        return bindNewMockProvider(Key.get(typeLiteral, Names.named(name)), settings);
     }
 
     /**
@@ -247,9 +347,9 @@ public abstract class TestModule extends AbstractModule {
     }
 
     @SuppressWarnings("unchecked")
-    private <T> ScopedBindingBuilder bindNewMockProvider(Key<T> key) {
+    private <T> ScopedBindingBuilder bindNewMockProvider(Key<T> key, MockSettings settings) {
         return bind(key).toProvider(
-                new MockProvider<T>((Class<T>) key.getTypeLiteral().getRawType()));
+                new MockProvider<T>((Class<T>) key.getTypeLiteral().getRawType(), settings));
     }
 
     @SuppressWarnings("unchecked")
@@ -257,7 +357,13 @@ public abstract class TestModule extends AbstractModule {
         TypeLiteral<T> type = key.getTypeLiteral();
         InjectionPoint constructorInjectionPoint = InjectionPoint.forConstructorOf(type);
         Key<T> relayingKey = Key.get(type, JukitoInternal.class);
-        bind(relayingKey).toConstructor((Constructor<T>) constructorInjectionPoint.getMember());
+        Constructor<T> constructor = (Constructor<T>) constructorInjectionPoint.getMember();
+        bind(relayingKey).toConstructor(constructor);
+        if (constructorInjectionPoint.getDependencies().isEmpty()
+                && !Modifier.isPrivate(constructor.getModifiers())) {
+            // The spy can run the constructor itself, no need to build and copy a real instance
+            return bind(key).toProvider(new SpyProvider<T>(type, getMembersInjector(type)));
+        }
         return bind(key).toProvider(new SpyProvider<T>(getProvider(relayingKey), relayingKey));
     }
 
@@ -349,6 +455,72 @@ public abstract class TestModule extends AbstractModule {
         }
     }
 
+    /**
+     * This method binds a source of many different values to the same class or interface. Unlike
+     * {@link #bindManyInstances(Class, Object[])}, a single binding is created for the whole
+     * {@link AllSource}, whatever its size, and each value is only obtained when a test uses it.
+     * The same restrictions apply: the values should be totally stateless.
+     * <p/>
+     * This method is useful when combined with the {@literal @}{@link All} annotation.
+     *
+     * @param clazz  The {@link Class} of the values.
+     * @param source The {@link AllSource} providing the values.
+     * @see {@link All}
+     */
+    protected <T> void bindManyFromSource(Class<T> clazz, AllSource<? extends T> source) {
+        bindManyNamedFromSource(TypeLiteral.get(clazz), All.DEFAULT, source);
+    }
+
+    /**
+     * This method binds a source of many different values to the same class or interface, see
+     * {@link #bindManyFromSource(Class, AllSource)}.
+     * <p/>
+     * This method is useful when combined with the {@literal @}{@link All} annotation with
+     * a name parameter.
+     *
+     * @param clazz  The {@link Class} of the values.
+     * @param name   The name to which to bind the values.
+     * @param source The {@link AllSource} providing the values.
+     * @see {@link All}
+     */
+    protected <T> void bindManyNamedFromSource(Class<T> clazz, String name, AllSource<? extends T> source) {
+        bindManyNamedFromSource(TypeLiteral.get(clazz), name, source);
+    }
+
+    /**
+     * This method binds a source of many different values to the same type literal, see
+     * {@link #bindManyFromSource(Class, AllSource)}.
+     * <p/>
+     * This method is useful when combined with the {@literal @}{@link All} annotation.
+     *
+     * @param type   The {@link TypeLiteral} of the values.
+     * @param source The {@link AllSource} providing the values.
+     * @see {@link All}
+     */
+    protected <T> void bindManyFromSource(TypeLiteral<T> type, AllSource<? extends T> source) {
+        bindManyNamedFromSource(type, All.DEFAULT, source);
+    }
+
+    /**
+     * This method binds a source of many different values to the same type literal, see
+     * {@link #bindManyFromSource(Class, AllSource)}.
+     * <p/>
+     * This method is useful when combined with the {@literal @}{@link All} annotation with
+     * a name parameter.
+     *
+     * @param type   The {@link TypeLiteral} of the values.
+     * @param name   The name to which to bind the values.
+     * @param source The {@link AllSource} providing the values.
+     * @see {@link All}
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> void bindManyNamedFromSource(TypeLiteral<T> type, String name, AllSource<? extends T> source) {
+        // Sources are only read from, so a source of a subtype can be bound as a source of the type
+        Key<AllSource<T>> key = (Key<AllSource<T>>) Key.get(
+                Types.newParameterizedType(AllSource.class, type.getType()), NamedUniqueAnnotations.create(name));
+        bind(key).toInstance((AllSource<T>) source);
+    }
+
     /**
      * This method binds many different classes to the same interface. All the
      * classes will be bound within the {@link TestScope#SINGLETON} scope.
@@ -16,47 +16,461 @@
 
 package org.jukito;
 
-import java.util.HashMap;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+import com.google.inject.Binding;
 import com.google.inject.Key;
 import com.google.inject.Provider;
 import com.google.inject.Scope;
+import com.google.inject.spi.DefaultBindingScopingVisitor;
 
 /**
- * Container of the {@link #SINGLETON} and {@link #EAGER_SINGLETON} scopes for
- * test cases running with the {@link JukitoRunner}. Depends on mockito.
+ * Container of the {@link #SINGLETON}, {@link #EAGER_SINGLETON}, {@link #CLASS_SINGLETON} and
+ * {@link #SUITE_SINGLETON} scopes for test cases running with the {@link JukitoRunner}.
+ * <p/>
+ * The instances are not stored in the scopes themselves but in the {@link Context} bound to the
+ * running thread, so tests running concurrently each get their own test-scoped singletons. The
+ * context is not inherited by the threads a test starts, long-lived threads would otherwise keep
+ * it; the {@link ParallelScheduler} hands it to its workers with {@link #propagateContext(Runnable)}.
+ * The context of a test has the context of its
+ * test class as parent, which itself has the context of the test run as parent. Outside of a
+ * test a default context is used. Within a context, the instances of each injector are stored in
+ * arrays indexed by the {@link Slots} that injector gave to their keys.
  * <p/>
  * Depends on Mockito.
  */
 public class TestScope {
 
+    /**
+     * The lifespan of the instances of a scope.
+     */
+    enum Level {
+        SUITE, CLASS, TEST
+    }
+
+    /**
+     * Holds the instances of the singletons of one test, one test class or one test run.
+     */
+    static final class Context {
+        private final Level level;
+        private final Context parent;
+        private final Slots slots;
+        private final ConcurrentMap<Key<?>, Object> suiteInstances;
+        private volatile Tables[] tables = NO_TABLES;
+        private final List<Object> created = new ArrayList<Object>();
+        private final Map<Object, MockPool> leased = new IdentityHashMap<Object, MockPool>();
+
+        private Context(Level level, Context parent) {
+            this.level = level;
+            this.parent = parent;
+            // Numbers the keys scoped while the tests of a class run, like the ones of just-in-time
+            // bindings, which are scoped after their injector was built
+            this.slots = level == Level.CLASS ? new Slots() : null;
+            // Suite-scoped instances are shared by all the injectors of the run, so they are keyed
+            // by their key rather than by the slots of an injector
+            this.suiteInstances = level == Level.SUITE ? new ConcurrentHashMap<Key<?>, Object>() : null;
+        }
+
+        /**
+         * @return The slots numbering the keys scoped outside of the creation of an injector while
+         * this context is bound, {@code null} if this is not a class context.
+         */
+        Slots getSlots() {
+            return slots;
+        }
+
+        /**
+         * Disposes of the instances created in this context, closing the {@link AutoCloseable} ones
+         * in the reverse order of their creation.
+         *
+         * @return The exceptions thrown while closing the instances, never {@code null}.
+         */
+        List<Throwable> close() {
+            List<Object> instances;
+            synchronized (this) {
+                instances = new ArrayList<Object>(created);
+                created.clear();
+                tables = NO_TABLES;
+                if (suiteInstances != null) {
+                    suiteInstances.clear();
+                }
+            }
+
+            List<Throwable> errors = new ArrayList<Throwable>();
+            Collections.reverse(instances);
+            for (Object instance : instances) {
+                if (instance instanceof AutoCloseable) {
+                    try {
+                        ((AutoCloseable) instance).close();
+                    } catch (Throwable t) {
+                        errors.add(t);
+                    }
+                }
+            }
+            return errors;
+        }
+
+        /**
+         * Drops the instances created in this test context, handing the mocks leased by the test
+         * back to the {@link MockPool}.
+         */
+        void release() {
+            Map<Object, MockPool> instances;
+            synchronized (this) {
+                instances = new IdentityHashMap<Object, MockPool>(leased);
+                leased.clear();
+                created.clear();
+                tables = NO_TABLES;
+            }
+
+            for (Map.Entry<Object, MockPool> instance : instances.entrySet()) {
+                instance.getValue().release(instance.getKey());
+            }
+        }
+
+        private Context forLevel(Level level) {
+            Context context = this;
+            while (context.level != level) {
+                context = context.parent;
+            }
+            return context;
+        }
+
+        /**
+         * @return The tables of the keys numbered by {@code slots}, created on first use.
+         */
+        private Tables getTables(Slots slots) {
+            Tables[] current = tables;
+            for (Tables candidate : current) {
+                if (candidate.slots == slots) {
+                    return candidate;
+                }
+            }
+            synchronized (this) {
+                current = tables;
+                for (Tables candidate : current) {
+                    if (candidate.slots == slots) {
+                        return candidate;
+                    }
+                }
+                Tables added = new Tables(slots);
+                Tables[] grown = new Tables[current.length + 1];
+                System.arraycopy(current, 0, grown, 0, current.length);
+                grown[current.length] = added;
+                tables = grown;
+                return added;
+            }
+        }
+
+        private synchronized void clear(Singleton scope) {
+            for (Tables current : tables) {
+                current.getStore(scope).clear();
+            }
+            if (suiteInstances != null) {
+                suiteInstances.clear();
+            }
+            created.clear();
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T get(Singleton scope, Slots slots, int slot, Provider<T> unscoped) {
+            SlotTable store = getTables(slots).getStore(scope);
+
+            Object o = store.get(slot);
+            if (o == null) {
+                // The provider may block on other threads using this context, it runs unlocked
+                Object created = unscoped.get();
+                if (created == null) {
+                    return null;
+                }
+                o = store.putIfAbsent(slot, created);
+                if (o == created) {
+                    register(created);
+                } else {
+                    // Another thread of the test published its instance first
+                    discard(created);
+                }
+            }
+            return (T) o;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T get(Key<T> key, Provider<T> unscoped) {
+            Object o = suiteInstances.get(key);
+            if (o == null) {
+                Object created = unscoped.get();
+                if (created == null) {
+                    return null;
+                }
+                o = suiteInstances.putIfAbsent(key, created);
+                if (o == null) {
+                    o = created;
+                    register(created);
+                } else {
+                    discard(created);
+                }
+            }
+            return (T) o;
+        }
+
+        private void register(Object instance) {
+            // Only the class and suite contexts dispose of their instances
+            if (level == Level.TEST) {
+                return;
+            }
+            synchronized (this) {
+                created.add(instance);
+            }
+            if (level == Level.SUITE) {
+                OPEN_SUITE_CONTEXTS.add(this);
+                SuiteShutdownHook.register();
+            }
+        }
+
+        private void discard(Object instance) {
+            if (level != Level.TEST && instance instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) instance).close();
+                } catch (Throwable t) {
+                    SuiteScopeDisposer.logDisposalErrors(Collections.singletonList(t));
+                }
+            }
+        }
+    }
+
+    private static final Tables[] NO_TABLES = new Tables[0];
+
+    /**
+     * The instances of the keys numbered by one {@link Slots} in one context.
+     */
+    private static final class Tables {
+        private final Slots slots;
+        private final SlotTable singletons;
+        private final SlotTable eagerSingletons;
+
+        Tables(Slots slots) {
+            this.slots = slots;
+            this.singletons = new SlotTable(slots);
+            this.eagerSingletons = new SlotTable(slots);
+        }
+
+        private SlotTable getStore(Singleton scope) {
+            return scope == EAGER_SINGLETON ? eagerSingletons : singletons;
+        }
+    }
+
+    /**
+     * The instances of one scope in one context, indexed by the slot of their key in its
+     * {@link Slots}. Clearing the table only drops its array.
+     * <p/>
+     * Instances are published with a compare-and-set. Growing the array takes a lock, and marks the
+     * empty slots of the old array as {@link #MOVED} so that no instance is published in it once it
+     * has been copied.
+     */
+    static final class SlotTable {
+        private static final AtomicReferenceArray<Object> EMPTY = new AtomicReferenceArray<Object>(0);
+        private static final Object MOVED = new Object();
+
+        private final Slots slots;
+        private volatile AtomicReferenceArray<Object> values = EMPTY;
+
+        SlotTable(Slots slots) {
+            this.slots = slots;
+        }
+
+        Object get(int slot) {
+            AtomicReferenceArray<Object> current = values;
+            Object value = slot < current.length() ? current.get(slot) : null;
+            if (value == MOVED) {
+                value = awaitGrowth().get(slot);
+            }
+            return value;
+        }
+
+        /**
+         * @return The instance published in the slot, {@code value} unless another one was
+         * published before.
+         */
+        Object putIfAbsent(int slot, Object value) {
+            while (true) {
+                AtomicReferenceArray<Object> current = values;
+                if (slot >= current.length()) {
+                    grow(current, slot);
+                } else if (current.compareAndSet(slot, null, value)) {
+                    return value;
+                } else {
+                    Object existing = current.get(slot);
+                    if (existing != MOVED) {
+                        return existing;
+                    }
+                    awaitGrowth();
+                }
+            }
+        }
+
+        private synchronized void grow(AtomicReferenceArray<Object> current, int slot) {
+            if (values != current) {
+                return;
+            }
+            int length = Math.max(slot + 1, Math.max(slots.size(), current.length() * 2));
+            AtomicReferenceArray<Object> grown = new AtomicReferenceArray<Object>(length);
+            for (int i = 0; i < current.length(); i++) {
+                // A slot is written once, either with an instance or with MOVED
+                if (!current.compareAndSet(i, null, MOVED)) {
+                    grown.set(i, current.get(i));
+                }
+            }
+            values = grown;
+        }
+
+        /**
+         * Waits for the array being grown, and returns it.
+         */
+        private synchronized AtomicReferenceArray<Object> awaitGrowth() {
+            return values;
+        }
+
+        synchronized void clear() {
+            values = EMPTY;
+        }
+    }
+
+    /**
+     * Numbers the keys scoped by one injector. Each injector numbers its own keys from zero, so the
+     * tables of a context only grow with the keys of the injectors it serves. The slots are
+     * referenced by the scoped providers of their injector and released with it. Keys scoped outside
+     * of the creation of an injector share the slots of their class context, or of the default
+     * context outside of a test.
+     */
+    static final class Slots {
+        private final AtomicInteger size = new AtomicInteger();
+
+        int allocate() {
+            return size.getAndIncrement();
+        }
+
+        int size() {
+            return size.get();
+        }
+    }
+
+    private static final ThreadLocal<Slots> INJECTOR_SLOTS = new ThreadLocal<Slots>();
+
+    /**
+     * Numbers the keys scoped on the current thread with {@code slots}, until
+     * {@link #exitInjector(Slots)} is called. Meant to surround the creation of an injector. Keys
+     * scoped at other times, like the ones of just-in-time bindings, are numbered by the slots of
+     * the current class context, so that all of them share a single table per context.
+     *
+     * @return The slots that were used before, to be given back to {@link #exitInjector(Slots)}.
+     */
+    static Slots enterInjector(Slots slots) {
+        Slots previous = INJECTOR_SLOTS.get();
+        INJECTOR_SLOTS.set(slots);
+        return previous;
+    }
+
+    /**
+     * Uses back the slots returned by {@link #enterInjector(Slots)}.
+     */
+    static void exitInjector(Slots previous) {
+        if (previous == null) {
+            INJECTOR_SLOTS.remove();
+        } else {
+            INJECTOR_SLOTS.set(previous);
+        }
+    }
+
+    /**
+     * Disposes of the suite-scoped singletons when the JVM exits, if the test runs did not do it.
+     */
+    private static class SuiteShutdownHook extends Thread {
+        private static boolean registered;
+
+        SuiteShutdownHook() {
+            super("jukito-suite-scope-disposer");
+        }
+
+        static synchronized void register() {
+            if (!registered) {
+                registered = true;
+                Runtime.getRuntime().addShutdownHook(new SuiteShutdownHook());
+            }
+        }
+
+        @Override
+        public void run() {
+            List<Context> contexts;
+            synchronized (OPEN_SUITE_CONTEXTS) {
+                contexts = new ArrayList<Context>(OPEN_SUITE_CONTEXTS);
+            }
+            for (Context context : contexts) {
+                SuiteScopeDisposer.logDisposalErrors(closeSuiteContext(context));
+            }
+        }
+    }
+
+    /**
+     * The suite contexts holding instances, until they are closed.
+     */
+    private static final Set<Context> OPEN_SUITE_CONTEXTS =
+            Collections.synchronizedSet(new LinkedHashSet<Context>());
+
+    private static final Context DEFAULT_CONTEXT =
+            new Context(Level.TEST, new Context(Level.CLASS, new Context(Level.SUITE, null)));
+
+    private static final ThreadLocal<Context> CURRENT_CONTEXT = new ThreadLocal<Context>();
+
     private static class Singleton implements Scope {
         private final String simpleName;
+        private final Level level;
 
-        private final Map<Key<?>, Object> backingMap = new HashMap<Key<?>, Object>();
-
-        private Singleton(String simpleName) {
+        private Singleton(String simpleName, Level level) {
             this.simpleName = simpleName;
+            this.level = level;
         }
 
         public void clear() {
-            backingMap.clear();
+            getCurrentContext().forLevel(level).clear(this);
         }
 
         @Override
         public <T> Provider<T> scope(final Key<T> key, final Provider<T> unscoped) {
+            if (level == Level.SUITE) {
+                return new Provider<T>() {
+                    public T get() {
+                        return getCurrentContext().forLevel(Level.SUITE).get(key, unscoped);
+                    }
+
+                    public String toString() {
+                        return unscoped + "[" + simpleName + "]";
+                    }
+                };
+            }
+
+            final Singleton scope = this;
+            Slots injectorSlots = INJECTOR_SLOTS.get();
+            final Slots slots = injectorSlots == null
+                    ? getCurrentContext().forLevel(Level.CLASS).slots : injectorSlots;
+            final int slot = slots.allocate();
             return new Provider<T>() {
-                @SuppressWarnings("unchecked")
                 public T get() {
+                    return getCurrentContext().forLevel(level).get(scope, slots, slot, unscoped);
+                }
 
-                    Object o = backingMap.get(key);
-
-                    if (o == null) {
-                        o = unscoped.get();
-                        backingMap.put(key, o);
-                    }
-                    return (T) o;
+                public String toString() {
+                    return unscoped + "[" + simpleName + "]";
                 }
             };
         }
@@ -75,21 +489,180 @@ public class TestScope {
      * If you want your singleton to be instantiated automatically with each new
      * test, use {@link #EAGER_SINGLETON}.
      */
-    public static final Singleton SINGLETON = new Singleton("TestSingleton");
+    public static final Singleton SINGLETON = new Singleton("TestSingleton", Level.TEST);
 
     /**
      * Eager test-scoped singleton are similar to test-scoped {@link #SINGLETON}
      * but they get instantiated automatically with each new test.
      */
-    public static final Singleton EAGER_SINGLETON = new Singleton("EagerTestSingleton");
+    public static final Singleton EAGER_SINGLETON = new Singleton("EagerTestSingleton", Level.TEST);
+
+    /**
+     * Class-scoped singletons are shared by all the tests of a test class. They are meant for
+     * expensive fixtures that the tests only read. Once all the tests of the class have run, the
+     * instances implementing {@link AutoCloseable} are closed.
+     */
+    public static final Singleton CLASS_SINGLETON = new Singleton("TestClassSingleton", Level.CLASS);
 
     /**
-     * Clears all the instances of test-scoped singletons. After this method is
-     * called, any "singleton" bound to this scope that had already been created
+     * Suite-scoped singletons are shared by all the tests of a test run, whatever their injector.
+     * The instances are keyed by their {@link Key}: when test classes bind the same key differently,
+     * the binding provisioned first wins. When the test run finishes, the instances implementing
+     * {@link AutoCloseable} are closed.
+     */
+    public static final Singleton SUITE_SINGLETON = new Singleton("TestSuiteSingleton", Level.SUITE);
+
+    /**
+     * Clears all the instances of test-scoped singletons of the current context. After this
+     * method is called, any "singleton" bound to this scope that had already been created
      * will be created again next time it gets injected.
      */
     public static void clear() {
         SINGLETON.clear();
         EAGER_SINGLETON.clear();
     }
+
+    /**
+     * Binds a new, empty test context to the current thread. Its parent is the class context of the
+     * context currently bound.
+     *
+     * @return The context that was bound to the current thread before, to be given back to
+     * {@link #restoreContext(Context)}. {@code null} if there was none.
+     */
+    static Context openContext() {
+        return openContext(getCurrentContext().forLevel(Level.CLASS));
+    }
+
+    /**
+     * Binds a new, empty test context to the current thread.
+     *
+     * @param classContext The context of the test class, created by {@link #newClassContext(Context)}.
+     * @return The context that was bound to the current thread before, to be given back to
+     * {@link #restoreContext(Context)}. {@code null} if there was none.
+     */
+    static Context openContext(Context classContext) {
+        Context previous = CURRENT_CONTEXT.get();
+        CURRENT_CONTEXT.set(new Context(Level.TEST, classContext));
+        return previous;
+    }
+
+    /**
+     * Binds back the context returned by {@link #openContext()}.
+     */
+    static void restoreContext(Context previous) {
+        if (previous == null) {
+            CURRENT_CONTEXT.remove();
+        } else {
+            CURRENT_CONTEXT.set(previous);
+        }
+    }
+
+    /**
+     * @return A task running {@code task} with the context bound to the current thread, then binding
+     * back the context of the thread running it.
+     */
+    static Runnable propagateContext(final Runnable task) {
+        final Context context = CURRENT_CONTEXT.get();
+        if (context == null) {
+            return task;
+        }
+        return new Runnable() {
+            @Override
+            public void run() {
+                Context previous = CURRENT_CONTEXT.get();
+                CURRENT_CONTEXT.set(context);
+                try {
+                    task.run();
+                } finally {
+                    restoreContext(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * Releases the test context bound to the current thread by {@link #openContext()}, then binds
+     * back the context it returned.
+     */
+    static void closeContext(Context previous) {
+        Context context = CURRENT_CONTEXT.get();
+        restoreContext(previous);
+        if (context != null && context.level == Level.TEST) {
+            context.release();
+        }
+    }
+
+    /**
+     * Gives the instance back to {@code mockPool} once the running test finishes.
+     *
+     * @return {@code false} if no test is running on the current thread, the instance is then
+     * never given back.
+     */
+    static boolean releaseAfterTest(Object instance, MockPool mockPool) {
+        Context context = CURRENT_CONTEXT.get();
+        if (context == null || context.level != Level.TEST) {
+            return false;
+        }
+        synchronized (context) {
+            context.leased.put(instance, mockPool);
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code true} if the instances of {@code binding} are dropped after each test, that is
+     * if it is in the {@link #SINGLETON} or {@link #EAGER_SINGLETON} scope.
+     */
+    static boolean isTestScoped(Binding<?> binding) {
+        return binding.acceptScopingVisitor(new DefaultBindingScopingVisitor<Boolean>() {
+            @Override
+            public Boolean visitScope(Scope scope) {
+                return scope instanceof Singleton && ((Singleton) scope).level == Level.TEST;
+            }
+
+            @Override
+            public Boolean visitScopeAnnotation(Class<? extends Annotation> scopeAnnotation) {
+                return scopeAnnotation == TestSingleton.class
+                        || scopeAnnotation == TestEagerSingleton.class;
+            }
+
+            @Override
+            protected Boolean visitOther() {
+                return false;
+            }
+        });
+    }
+
+    /**
+     * @return A new context for the suite-scoped singletons of a test run. It must be closed with
+     * {@link #closeSuiteContext(Context)} once the run is over.
+     */
+    static Context newSuiteContext() {
+        return new Context(Level.SUITE, null);
+    }
+
+    /**
+     * @param suiteContext The context of the test run, created by {@link #newSuiteContext()}.
+     * @return A new context for the tests of a test class. It must be {@link Context#close() closed}
+     * once they have all run.
+     */
+    static Context newClassContext(Context suiteContext) {
+        return new Context(Level.CLASS, suiteContext);
+    }
+
+    /**
+     * Disposes of the suite-scoped singletons of a test run. Later tests of the run get new
+     * instances.
+     *
+     * @return The exceptions thrown while closing the instances, never {@code null}.
+     */
+    static List<Throwable> closeSuiteContext(Context suiteContext) {
+        OPEN_SUITE_CONTEXTS.remove(suiteContext);
+        return suiteContext.close();
+    }
+
+    private static Context getCurrentContext() {
+        Context context = CURRENT_CONTEXT.get();
+        return context == null ? DEFAULT_CONTEXT : context;
+    }
 }
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.inject.Binding;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test that {@link AllCombinations} decodes every combination from its index, in the
+ * order of nested loops over the parameters.
+ */
+public class AllCombinationsTest {
+
+    static class CombinationsModule extends TestModule {
+        @Override
+        protected void configureTest() {
+            bindManyInstances(String.class, "a", "b");
+            bindManyInstances(Integer.class, 1, 2, 3);
+        }
+    }
+
+    public static class ManyCombinationsTestClass {
+        public static class Module extends JukitoModule {
+            @Override
+            protected void configureTest() {
+                bindManyInstances(String.class, "a", "b");
+                bindManyInstances(Integer.class, 1, 2, 3);
+            }
+        }
+
+        @Test
+        public void test(@All String value, @All Integer number) {
+        }
+
+        @Test
+        public void other() {
+        }
+    }
+
+    @Test
+    public void combinationsAreDecodedInOrder() throws Exception {
+        Injector injector = Guice.createInjector(new CombinationsModule());
+        List<AllParameter> parameters = new ArrayList<>();
+        parameters.add(new AllParameter(
+                new ArrayList<Binding<?>>(injector.findBindingsByType(Key.get(String.class).getTypeLiteral()))));
+        parameters.add(new AllParameter(
+                new ArrayList<Binding<?>>(injector.findBindingsByType(Key.get(Integer.class).getTypeLiteral()))));
+
+        AllCombinations combinations = new AllCombinations(
+                ManyCombinationsTestClass.class.getMethod("test", String.class, Integer.class), parameters,
+                null, false);
+
+        assertEquals(6, combinations.size());
+        List<String> decoded = new ArrayList<>();
+        for (int i = 0; i < combinations.size(); i++) {
+            List<AllParameter.Value> combination = combinations.get(i);
+            decoded.add(combination.get(0).resolve(injector) + "" + combination.get(1).resolve(injector));
+        }
+        assertEquals("[a1, a2, a3, b1, b2, b3]", decoded.toString());
+    }
+
+    @Test
+    public void everyCombinationIsATestMethod() throws Exception {
+        JukitoRunner runner = new JukitoRunner(ManyCombinationsTestClass.class);
+
+        assertEquals(7, runner.testCount());
+    }
+}
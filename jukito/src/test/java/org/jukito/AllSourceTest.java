@@ -0,0 +1,138 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.google.inject.Provider;
+import com.google.inject.TypeLiteral;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test that {@link AllSource} values fill {@literal @}{@link All} parameters without being bound
+ * one by one.
+ */
+@RunWith(JukitoRunner.class)
+public class AllSourceTest {
+
+    private static final int SIZE = 1000;
+    private static final AtomicInteger ITERATIONS = new AtomicInteger();
+    private static final List<Integer> NUMBERS = Collections.synchronizedList(new ArrayList<Integer>());
+    private static final List<String> WORDS = Collections.synchronizedList(new ArrayList<String>());
+
+    public static class Module extends JukitoModule {
+        @Override
+        protected void configureTest() {
+            bindManyFromSource(Integer.class, new IterableAllSource<>(new Iterable<Integer>() {
+                @Override
+                public Iterator<Integer> iterator() {
+                    ITERATIONS.incrementAndGet();
+                    return new Iterator<Integer>() {
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < SIZE;
+                        }
+
+                        @Override
+                        public Integer next() {
+                            return next++;
+                        }
+
+                        @Override
+                        public void remove() {
+                            throw new UnsupportedOperationException();
+                        }
+                    };
+                }
+            }));
+            bindManyNamedInstances(String.class, "words", "first");
+            bindManyNamedFromSource(String.class, "words", new AllSource<String>() {
+                @Override
+                public int size() {
+                    return 2;
+                }
+
+                @Override
+                public String get(int index) {
+                    return index == 0 ? "second" : "third";
+                }
+            });
+        }
+    }
+
+    /**
+     * Not run by itself, the size of its source cannot be read before the tests run.
+     */
+    public static class TestScopedSourceTestClass {
+        public static class Module extends JukitoModule {
+            @Override
+            protected void configureTest() {
+                bind(new TypeLiteral<AllSource<Integer>>() {
+                }).annotatedWith(NamedUniqueAnnotations.create(All.DEFAULT))
+                        .toProvider(new Provider<AllSource<Integer>>() {
+                            @Override
+                            public AllSource<Integer> get() {
+                                return new IterableAllSource<>(Arrays.asList(1, 2));
+                            }
+                        }).in(TestSingleton.class);
+            }
+        }
+
+        @Test
+        public void test(@All Integer number) {
+        }
+    }
+
+    @AfterClass
+    public static void checkValues() {
+        assertEquals(SIZE, NUMBERS.size());
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(Integer.valueOf(i), NUMBERS.get(i));
+        }
+        // One pass to count the values, one to read them
+        assertEquals(2, ITERATIONS.get());
+
+        assertEquals("[first, second, third]", WORDS.toString());
+    }
+
+    @Test
+    public void numbersComeFromTheSource(@All Integer number) {
+        NUMBERS.add(number);
+    }
+
+    @Test
+    public void bindingsComeBeforeSources(@All("words") String word) {
+        WORDS.add(word);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testScopedSourcesAreRejected() throws Exception {
+        new JukitoRunner(TestScopedSourceTestClass.class).getDescription();
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the lifespan of {@link TestClassSingleton} and {@link TestSuiteSingleton} instances.
+ */
+public class ClassAndSuiteScopeTest {
+
+    @TestClassSingleton
+    static class Fixture implements Closeable {
+        static final List<Fixture> INSTANCES = new ArrayList<>();
+
+        boolean closed;
+
+        Fixture() {
+            INSTANCES.add(this);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    @TestSuiteSingleton
+    static class SharedFixture implements Closeable {
+        static final List<SharedFixture> INSTANCES = new ArrayList<>();
+
+        boolean closed;
+
+        SharedFixture() {
+            INSTANCES.add(this);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    @TestClassSingleton
+    static class FailingFixture implements Closeable {
+        @Override
+        public void close() throws IOException {
+            throw new IOException("Cannot close");
+        }
+    }
+
+    @TestSingleton
+    static class PerTest {
+    }
+
+    @RunWith(JukitoRunner.class)
+    public static class FirstTestClass {
+        static final List<PerTest> PER_TEST = new ArrayList<>();
+
+        @Test
+        public void first(Fixture fixture, SharedFixture shared, PerTest perTest) {
+            PER_TEST.add(perTest);
+        }
+
+        @Test
+        public void second(Fixture fixture, SharedFixture shared, PerTest perTest) {
+            PER_TEST.add(perTest);
+        }
+    }
+
+    @RunWith(JukitoRunner.class)
+    public static class SecondTestClass {
+        @Test
+        public void test(SharedFixture shared) {
+        }
+    }
+
+    @RunWith(JukitoRunner.class)
+    public static class SameRootsTestClass {
+        @Test
+        public void otherTest(SharedFixture shared) {
+        }
+    }
+
+    @RunWith(JukitoRunner.class)
+    public static class FailingTestClass {
+        @Test
+        public void test(FailingFixture fixture) {
+        }
+    }
+
+    @Before
+    public void clearInstances() {
+        Fixture.INSTANCES.clear();
+        SharedFixture.INSTANCES.clear();
+        FirstTestClass.PER_TEST.clear();
+    }
+
+    @After
+    public void disableInjectorCache() {
+        System.clearProperty(InjectorCache.SIZE_PROPERTY);
+    }
+
+    @Test
+    public void scopesHaveTheirOwnLifespan() {
+        Result result = JUnitCore.runClasses(FirstTestClass.class, SecondTestClass.class);
+
+        assertTrue(result.getFailures().toString(), result.wasSuccessful());
+
+        assertEquals(1, Fixture.INSTANCES.size());
+        assertTrue(Fixture.INSTANCES.get(0).closed);
+
+        assertEquals(1, SharedFixture.INSTANCES.size());
+        assertTrue(SharedFixture.INSTANCES.get(0).closed);
+
+        assertEquals(2, FirstTestClass.PER_TEST.size());
+        assertNotSame(FirstTestClass.PER_TEST.get(0), FirstTestClass.PER_TEST.get(1));
+    }
+
+    @Test
+    public void classesWithTheirOwnInjectorsShareSuiteSingletons() {
+        Result result = JUnitCore.runClasses(SecondTestClass.class, SameRootsTestClass.class);
+
+        assertTrue(result.getFailures().toString(), result.wasSuccessful());
+        assertEquals(1, SharedFixture.INSTANCES.size());
+        assertTrue(SharedFixture.INSTANCES.get(0).closed);
+    }
+
+    @Test
+    public void classesSharingAnInjectorShareSuiteSingletons() {
+        System.setProperty(InjectorCache.SIZE_PROPERTY, "32");
+
+        Result result = JUnitCore.runClasses(SecondTestClass.class, SameRootsTestClass.class);
+
+        assertTrue(result.getFailures().toString(), result.wasSuccessful());
+        assertEquals(1, SharedFixture.INSTANCES.size());
+        assertTrue(SharedFixture.INSTANCES.get(0).closed);
+    }
+
+    @Test
+    public void eachRunHasItsOwnSuiteSingletons() {
+        System.setProperty(InjectorCache.SIZE_PROPERTY, "32");
+
+        JUnitCore.runClasses(SecondTestClass.class);
+        JUnitCore.runClasses(SameRootsTestClass.class);
+
+        assertEquals(2, SharedFixture.INSTANCES.size());
+        assertTrue(SharedFixture.INSTANCES.get(0).closed);
+        assertTrue(SharedFixture.INSTANCES.get(1).closed);
+    }
+
+    @Test
+    public void disposalFailuresAreReportedOnTheClass() {
+        Result result = JUnitCore.runClasses(FailingTestClass.class);
+
+        assertEquals(1, result.getFailureCount());
+        assertSame(FailingTestClass.class, result.getFailures().get(0).getDescription().getTestClass());
+        assertEquals("Cannot close", result.getFailures().get(0).getMessage());
+    }
+}
@@ -0,0 +1,201 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.manipulation.Filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test that {@link Combinations} strategies reduce the combinations of {@literal @}{@link All}
+ * parameters and give each one a stable name.
+ */
+public class CombinationsTest {
+
+    public static class ReducedTestClass {
+        public static class Module extends JukitoModule {
+            @Override
+            protected void configureTest() {
+                bindManyInstances(String.class, "a", "b", "c");
+                bindManyInstances(Integer.class, 1, 2, 3);
+                bindManyInstances(Character.class, 'x', 'y', 'z');
+            }
+        }
+
+        @Test
+        @Combinations(Combinations.Strategy.PAIRWISE)
+        public void pairwise(@All String value, @All Integer number, @All Character character) {
+        }
+
+        @Test
+        @Combinations(value = Combinations.Strategy.SAMPLED, limit = 5, seed = 7)
+        public void sampled(@All String value, @All Integer number, @All Character character) {
+        }
+
+        @Test
+        @Combinations(value = Combinations.Strategy.CAPPED, limit = 4)
+        public void capped(@All String value, @All Integer number, @All Character character) {
+        }
+
+        @Test
+        public void all(@All String value, @All Integer number) {
+        }
+
+        @Test
+        @Combinations(Combinations.Strategy.SAMPLED)
+        public void unlimited(@All String value, @All Integer number) {
+        }
+    }
+
+    public static class Strategies {
+        @Combinations(Combinations.Strategy.PAIRWISE)
+        public void pairwise() {
+        }
+
+        @Combinations(value = Combinations.Strategy.CAPPED, limit = -1)
+        public void negativeLimit() {
+        }
+
+        @Combinations(Combinations.Strategy.CAPPED)
+        public void unlimited() {
+        }
+    }
+
+    @Test
+    public void pairwiseCoversEveryPair() {
+        int[] radices = {3, 4, 2, 3};
+        List<int[]> tuples = CombinationReducer.pairwise(radices);
+
+        assertTrue(tuples.size() < 3 * 4 * 2 * 3);
+        for (int p = 0; p < radices.length; p++) {
+            for (int q = p + 1; q < radices.length; q++) {
+                Set<String> pairs = new HashSet<>();
+                for (int[] tuple : tuples) {
+                    pairs.add(tuple[p] + "," + tuple[q]);
+                }
+                assertEquals(radices[p] * radices[q], pairs.size());
+            }
+        }
+    }
+
+    @Test
+    public void pairwiseIsNotCappedByDefault() throws Exception {
+        int[] radices = {11, 11, 11};
+        Combinations pairwise = Strategies.class.getMethod("pairwise").getAnnotation(Combinations.class);
+
+        List<int[]> tuples = CombinationReducer.reduce(pairwise, radices);
+
+        Set<String> pairs = new HashSet<>();
+        for (int[] tuple : tuples) {
+            pairs.add(tuple[0] + "," + tuple[1]);
+        }
+        assertEquals(11 * 11, pairs.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void pairwiseRejectsMorePairsThanABitSetHolds() {
+        CombinationReducer.pairwise(new int[]{2, 65536, 65536});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeLimitIsRejected() throws Exception {
+        Combinations negativeLimit = Strategies.class.getMethod("negativeLimit").getAnnotation(Combinations.class);
+
+        CombinationReducer.reduce(negativeLimit, new int[]{2, 2});
+    }
+
+    @Test
+    public void strategiesWithoutLimitKeepEveryCombination() throws Exception {
+        Combinations unlimited = Strategies.class.getMethod("unlimited").getAnnotation(Combinations.class);
+        Combinations pairwise = Strategies.class.getMethod("pairwise").getAnnotation(Combinations.class);
+
+        assertTrue(CombinationReducer.keepsAll(unlimited, 3));
+        assertTrue(CombinationReducer.keepsAll(pairwise, 1));
+        assertFalse(CombinationReducer.keepsAll(pairwise, 2));
+    }
+
+    @Test
+    public void samplingIsReproducible() {
+        int[] radices = {10, 10, 10};
+
+        List<String> first = toStrings(CombinationReducer.sample(radices, 20, 42));
+        List<String> second = toStrings(CombinationReducer.sample(radices, 20, 42));
+
+        assertEquals(20, new HashSet<>(first).size());
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void reducedCombinationsAreNamedByTheirIndexes() throws Exception {
+        JukitoRunner runner = new JukitoRunner(ReducedTestClass.class);
+
+        List<String> names = new ArrayList<>();
+        for (Description child : runner.getDescription().getChildren()) {
+            names.add(child.getMethodName());
+        }
+
+        assertTrue(names.contains("capped[0,0,0]"));
+        assertTrue(names.contains("capped[0,1,0]"));
+        assertTrue(names.contains("pairwise[0,0,0]"));
+        assertEquals(5, count(names, "sampled["));
+        assertEquals(4, count(names, "capped["));
+        assertEquals(9, count(names, "all"));
+        assertEquals(9, count(names, "unlimited["));
+        assertTrue(names.contains("unlimited[2,2]"));
+    }
+
+    @Test
+    public void oneCombinationCanBeRunAlone() throws Exception {
+        JukitoRunner runner = new JukitoRunner(ReducedTestClass.class);
+
+        runner.filter(Filter.matchMethodDescription(
+                Description.createTestDescription(ReducedTestClass.class, "capped[0,0,2]")));
+
+        assertEquals(1, runner.testCount());
+    }
+
+    private int count(List<String> names, String prefix) {
+        int count = 0;
+        for (String name : names) {
+            if (name.startsWith(prefix)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private List<String> toStrings(List<int[]> tuples) {
+        List<String> result = new ArrayList<>();
+        for (int[] tuple : tuples) {
+            StringBuilder builder = new StringBuilder();
+            for (int index : tuple) {
+                builder.append(index).append(',');
+            }
+            result.add(builder.toString());
+        }
+        return result;
+    }
+}
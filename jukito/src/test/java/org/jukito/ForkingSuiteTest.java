@@ -0,0 +1,203 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test that {@link ForkingSuite} plans the longest work first and merges the results of its
+ * workers. The workers run on threads of the test JVM.
+ */
+public class ForkingSuiteTest {
+
+    public static class FirstTestClass {
+        @Test
+        public void passes() {
+        }
+
+        @Test
+        public void fails() {
+            throw new AssertionError("Expected failure");
+        }
+    }
+
+    @RunWith(JukitoRunner.class)
+    public static class SecondTestClass {
+        public static class Module extends JukitoModule {
+            @Override
+            protected void configureTest() {
+                bindManyInstances(Integer.class, 1, 2, 3);
+            }
+        }
+
+        @Test
+        public void combinations(@All Integer number) {
+        }
+    }
+
+    @RunWith(ForkingSuite.class)
+    @Suite.SuiteClasses({FirstTestClass.class, SecondTestClass.class})
+    public static class ForkedSuite {
+    }
+
+    /**
+     * Runs the workers on threads of this JVM, rather than starting new JVMs.
+     */
+    static class InProcessLauncher implements ForkingSuite.WorkerLauncher {
+        @Override
+        public Process launch(final int port) {
+            return new InProcessWorker(port);
+        }
+    }
+
+    private static class InProcessWorker extends Process {
+        private final Thread thread;
+
+        InProcessWorker(final int port) {
+            thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        ForkedWorker.work(port);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }, "in-process-worker");
+            thread.start();
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return new ByteArrayOutputStream();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        @Override
+        public InputStream getErrorStream() {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        @Override
+        public int waitFor() throws InterruptedException {
+            thread.join();
+            return 0;
+        }
+
+        @Override
+        public int exitValue() {
+            if (thread.isAlive()) {
+                throw new IllegalThreadStateException();
+            }
+            return 0;
+        }
+
+        @Override
+        public void destroy() {
+            thread.interrupt();
+        }
+    }
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void longestWorkIsPlannedFirst() throws Exception {
+        File file = folder.newFile();
+        TestDurations recorded = new TestDurations(file);
+        recorded.record(FirstTestClass.class.getName(), 100);
+        recorded.record(SecondTestClass.class.getName(), 900);
+        recorded.save();
+
+        List<ForkedWorker.Unit> units = ForkingSuite.planUnits(
+                Arrays.<Class<?>>asList(FirstTestClass.class, SecondTestClass.class, ForkedSuite.class),
+                TestDurations.load(file), 2);
+
+        // Unknown first, then the shards of the Jukito class longer than half the suite
+        assertEquals(ForkedSuite.class.getName(), units.get(0).getClassName());
+        assertEquals(SecondTestClass.class.getName(), units.get(1).getClassName());
+        assertEquals(2, units.get(1).getShardCount());
+        assertEquals(SecondTestClass.class.getName(), units.get(2).getClassName());
+        assertEquals(FirstTestClass.class.getName(), units.get(3).getClassName());
+    }
+
+    @Test
+    public void resultsOfAllWorkersAreMerged() throws Exception {
+        File durationsFile = new File(folder.getRoot(), "durations.properties");
+        System.setProperty(ForkingSuite.WORKERS_PROPERTY, "2");
+        System.setProperty(ForkingSuite.DURATIONS_PROPERTY, durationsFile.getPath());
+        Result result;
+        try {
+            result = new JUnitCore().run(Request.runner(new ForkingSuite(ForkedSuite.class, new InProcessLauncher())));
+        } finally {
+            System.clearProperty(ForkingSuite.WORKERS_PROPERTY);
+            System.clearProperty(ForkingSuite.DURATIONS_PROPERTY);
+        }
+
+        assertEquals(5, result.getRunCount());
+        assertEquals(1, result.getFailureCount());
+        assertEquals("Expected failure", result.getFailures().get(0).getMessage());
+
+        TestDurations durations = TestDurations.load(durationsFile);
+        assertNotNull(durations.get(FirstTestClass.class.getName()));
+        assertNotNull(durations.get(SecondTestClass.class.getName()));
+    }
+
+    @Test
+    public void everyTestIsDescribed() throws Exception {
+        Description description = new ForkingSuite(ForkedSuite.class, new InProcessLauncher()).getDescription();
+
+        assertEquals(5, description.testCount());
+        assertTrue(description.getChildren().get(0).getChildren().contains(
+                Description.createTestDescription(FirstTestClass.class, "fails")));
+    }
+
+    @Test
+    public void debuggerAndSuiteSettingsAreNotForwarded() {
+        assertTrue(ForkingSuite.isForwarded("-Xmx512m"));
+        assertTrue(ForkingSuite.isForwarded("-javaagent:coverage.jar"));
+        assertTrue(ForkingSuite.isForwarded("-Djukito.recycleMocks=true"));
+        assertFalse(ForkingSuite.isForwarded("-agentlib:jdwp=transport=dt_socket,server=y,address=5005"));
+        assertFalse(ForkingSuite.isForwarded("-Djukito.fork.workers=4"));
+        assertFalse(ForkingSuite.isForwarded("-Djukito.shardIndex=1"));
+    }
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Module;
+import com.google.inject.TypeLiteral;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test that injectors are shared between test classes having the same fingerprint, once the cache
+ * is enabled.
+ */
+public class InjectorCacheTest {
+
+    interface Service {
+    }
+
+    interface OtherService {
+    }
+
+    static class ServiceImpl implements Service {
+    }
+
+    static class CacheModule extends AbstractModule {
+        @Override
+        protected void configure() {
+            bind(Service.class).to(ServiceImpl.class);
+        }
+    }
+
+    @UseModules(CacheModule.class)
+    public static class FirstTestClass {
+        @Test
+        public void test(Service service) {
+        }
+    }
+
+    @UseModules(CacheModule.class)
+    public static class SecondTestClass {
+        @Test
+        public void otherTest(Service service) {
+        }
+    }
+
+    @UseModules(CacheModule.class)
+    public static class OtherRootsTestClass {
+        @Test
+        public void test(Service service, OtherService otherService) {
+        }
+    }
+
+    @UseModules(value = CacheModule.class, autoBindMocks = false)
+    public static class NoAutoBindMocksTestClass {
+        @Test
+        public void test(Service service) {
+        }
+    }
+
+    @Before
+    public void enableCache() {
+        System.setProperty(InjectorCache.SIZE_PROPERTY, "32");
+    }
+
+    @After
+    public void disableCache() {
+        System.clearProperty(InjectorCache.SIZE_PROPERTY);
+    }
+
+    @Test
+    public void classesDoNotShareInjectorByDefault() throws Exception {
+        System.clearProperty(InjectorCache.SIZE_PROPERTY);
+
+        Injector first = new JukitoRunner(FirstTestClass.class).getInjector();
+        Injector second = new JukitoRunner(SecondTestClass.class).getInjector();
+
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void classesWithSameFingerprintShareInjector() throws Exception {
+        Injector first = new JukitoRunner(FirstTestClass.class).getInjector();
+        Injector second = new JukitoRunner(SecondTestClass.class).getInjector();
+
+        assertSame(first, second);
+    }
+
+    @Test
+    public void classesSharingInjectorShareItsIndex() throws Exception {
+        JukitoRunner first = new JukitoRunner(FirstTestClass.class);
+        JukitoRunner second = new JukitoRunner(SecondTestClass.class);
+
+        TypeLiteral<Service> service = TypeLiteral.get(Service.class);
+        assertSame(first.getInjectorIndex().getAllBindings(service, All.DEFAULT),
+                second.getInjectorIndex().getAllBindings(service, All.DEFAULT));
+    }
+
+    @Test
+    public void classesWithDifferentRootsDoNotShareInjector() throws Exception {
+        Injector first = new JukitoRunner(FirstTestClass.class).getInjector();
+        Injector other = new JukitoRunner(OtherRootsTestClass.class).getInjector();
+
+        assertNotSame(first, other);
+    }
+
+    @Test
+    public void classesWithDifferentAutoBindMocksDoNotShareInjector() throws Exception {
+        Injector first = new JukitoRunner(FirstTestClass.class).getInjector();
+        Injector other = new JukitoRunner(NoAutoBindMocksTestClass.class).getInjector();
+
+        assertNotSame(first, other);
+    }
+
+    @Test
+    public void leastRecentlyUsedInjectorIsEvicted() {
+        InjectorCache cache = new InjectorCache(2);
+        InjectorCache.Fingerprint a = fingerprint(FirstTestClass.class);
+        InjectorCache.Fingerprint b = fingerprint(SecondTestClass.class);
+        InjectorCache.Fingerprint c = fingerprint(OtherRootsTestClass.class);
+        InjectorIndex indexA = new InjectorIndex(Guice.createInjector());
+
+        cache.putIfAbsent(a, indexA);
+        cache.putIfAbsent(b, new InjectorIndex(Guice.createInjector()));
+        cache.get(a);
+        cache.putIfAbsent(c, new InjectorIndex(Guice.createInjector()));
+
+        assertEquals(2, cache.size());
+        assertSame(indexA, cache.get(a));
+        assertNull(cache.get(b));
+    }
+
+    private InjectorCache.Fingerprint fingerprint(Class<?> testClass) {
+        return new InjectorCache.Fingerprint(JukitoRunner.class, TestModule.class,
+                Collections.<Class<? extends Module>>emptySet(), true,
+                Collections.<Key<?>>singleton(Key.get(testClass)));
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.inject.Binding;
+import com.google.inject.Guice;
+import com.google.inject.TypeLiteral;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test that {@link InjectorIndex} only keeps the providers of eager test singletons, and indexes
+ * the bindings of {@link All} parameters by type and name.
+ */
+public class InjectorIndexTest {
+
+    static class Eager {
+    }
+
+    static class Lazy {
+    }
+
+    static class Unscoped {
+    }
+
+    static class IndexModule extends TestModule {
+        @Override
+        protected void configureTest() {
+            bind(Eager.class).in(TestEagerSingleton.class);
+            bind(Lazy.class).in(TestSingleton.class);
+            bind(Unscoped.class);
+            bindManyInstances(String.class, "a", "b");
+            bindManyNamedInstances(String.class, "named", "c");
+            bind(String.class).toInstance("unannotated");
+        }
+    }
+
+    @Test
+    public void onlyEagerSingletonsAreIndexed() {
+        InjectorIndex index = new InjectorIndex(Guice.createInjector(new IndexModule()));
+
+        assertEquals(1, index.getEagerSingletonProviders().size());
+        assertTrue(index.getEagerSingletonProviders().get(0).get() instanceof Eager);
+    }
+
+    @Test
+    public void allBindingsAreIndexedByTypeAndName() {
+        InjectorIndex index = new InjectorIndex(Guice.createInjector(new IndexModule()));
+        TypeLiteral<String> type = TypeLiteral.get(String.class);
+
+        List<Binding<?>> all = index.getAllBindings(type, All.DEFAULT);
+        List<Binding<?>> named = index.getAllBindings(type, "named");
+
+        assertEquals("[a, b, c]", values(all).toString());
+        assertEquals("[c]", values(named).toString());
+        assertSame(all, index.getAllBindings(type, All.DEFAULT));
+    }
+
+    private List<Object> values(List<Binding<?>> bindings) {
+        List<Object> values = new ArrayList<>();
+        for (Binding<?> binding : bindings) {
+            values.add(binding.getProvider().get());
+        }
+        return values;
+    }
+}
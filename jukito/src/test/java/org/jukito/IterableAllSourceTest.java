@@ -0,0 +1,55 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test that {@link IterableAllSource} iterates once over its values, whatever the order they are
+ * read in.
+ */
+public class IterableAllSourceTest {
+
+    @Test
+    public void valuesReadOutOfOrderAreIteratedOnce() {
+        final AtomicInteger iterations = new AtomicInteger();
+        IterableAllSource<String> source = new IterableAllSource<>(new Iterable<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                iterations.incrementAndGet();
+                return Arrays.asList("a", "b", "c", "d").iterator();
+            }
+        });
+
+        assertEquals("c", source.get(2));
+        assertEquals("a", source.get(0));
+        assertEquals("d", source.get(3));
+        assertEquals("b", source.get(1));
+        assertEquals(1, iterations.get());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void readingPastTheLastValueFails() {
+        new IterableAllSource<>(Arrays.asList("a")).get(1);
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.notification.RunNotifier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test that the injector is only created when a test actually needs it.
+ */
+public class LazyInjectorTest {
+
+    public static class DescribedTestClass {
+        public static class Module extends JukitoModule {
+            static int configurations;
+
+            @Override
+            protected void configureTest() {
+                configurations++;
+            }
+        }
+
+        @Test
+        public void test() {
+        }
+    }
+
+    public static class IgnoredTestClass {
+        public static class Module extends JukitoModule {
+            static int configurations;
+
+            @Override
+            protected void configureTest() {
+                configurations++;
+                bindManyInstances(String.class, "a", "b");
+            }
+        }
+
+        @Ignore
+        @Test
+        public void ignored() {
+        }
+
+        @Ignore
+        @Test
+        public void ignoredWithAll(@All String value) {
+        }
+    }
+
+    public static class FilteredTestClass {
+        public static class Module extends JukitoModule {
+            static int configurations;
+
+            @Override
+            protected void configureTest() {
+                configurations++;
+                bindManyInstances(String.class, "a", "b", "c");
+            }
+        }
+
+        @Test
+        public void simple() {
+        }
+
+        @Test
+        public void withAll(@All String value) {
+        }
+    }
+
+    @RunWith(JukitoRunner.class)
+    public static class FailingModuleTestClass {
+        public static class Module extends JukitoModule {
+            static int configurations;
+
+            @Override
+            protected void configureTest() {
+                configurations++;
+                throw new IllegalStateException("Cannot configure");
+            }
+        }
+
+        @Test
+        public void first() {
+        }
+
+        @Test
+        public void second() {
+        }
+    }
+
+    @RunWith(JukitoRunner.class)
+    public static class NoValueTestClass {
+        @Test
+        public void withAll(@All String value) {
+        }
+    }
+
+    @Test
+    public void describingTestClassDoesNotCreateInjector() throws Exception {
+        JukitoRunner runner = new JukitoRunner(DescribedTestClass.class);
+        runner.getDescription();
+
+        assertEquals(0, DescribedTestClass.Module.configurations);
+    }
+
+    @Test
+    public void runningIgnoredTestsDoesNotCreateInjector() throws Exception {
+        JukitoRunner runner = new JukitoRunner(IgnoredTestClass.class);
+        runner.run(new RunNotifier());
+
+        assertEquals(0, IgnoredTestClass.Module.configurations);
+    }
+
+    @Test
+    public void filteredOutAllMethodsAreNotExpanded() throws Exception {
+        JukitoRunner runner = new JukitoRunner(FilteredTestClass.class);
+        runner.filter(Filter.matchMethodDescription(
+                Description.createTestDescription(FilteredTestClass.class, "simple")));
+
+        assertEquals(1, runner.testCount());
+        assertEquals(0, FilteredTestClass.Module.configurations);
+    }
+
+    @Test
+    public void injectorFailureIsNotRebuiltForEachTest() {
+        Result result = JUnitCore.runClasses(FailingModuleTestClass.class);
+
+        assertEquals(1, FailingModuleTestClass.Module.configurations);
+        assertEquals(2, result.getFailureCount());
+        assertSame(result.getFailures().get(0).getException(), result.getFailures().get(1).getException());
+    }
+
+    @Test
+    public void allParametersWithoutValueAreNotRunnable() {
+        Result result = JUnitCore.runClasses(NoValueTestClass.class);
+
+        assertEquals(1, result.getFailureCount());
+        assertEquals("No runnable methods", result.getFailures().get(0).getMessage());
+    }
+}
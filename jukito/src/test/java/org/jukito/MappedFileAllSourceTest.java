@@ -0,0 +1,112 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test that {@link MappedFileAllSource} reads one value per line of a memory-mapped file.
+ */
+public class MappedFileAllSourceTest {
+
+    private static final MappedFileAllSource.Decoder<String> FIRST_COLUMN =
+            new MappedFileAllSource.Decoder<String>() {
+                @Override
+                public String decode(ByteBuffer record) {
+                    String line = MappedFileAllSource.UTF_8_DECODER.decode(record);
+                    return line.substring(0, line.indexOf(','));
+                }
+            };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void recordsAreReadLineByLine() throws Exception {
+        File file = write("name,value\r\nget,1\r\n\r\npost,22\nget,333");
+
+        MappedFileAllSource<String> source =
+                new MappedFileAllSource<>(file, true, MappedFileAllSource.UTF_8_DECODER);
+
+        assertEquals("[get,1, post,22, get,333]", values(source).toString());
+    }
+
+    @Test
+    public void recordsCanSpanSegments() throws Exception {
+        File file = write("get,1\npost,22\nget,333\nput,4444\n");
+
+        MappedFileAllSource<String> source =
+                new MappedFileAllSource<>(file, false, MappedFileAllSource.UTF_8_DECODER, 10);
+
+        assertEquals("[get,1, post,22, get,333, put,4444]", values(source).toString());
+    }
+
+    @Test
+    public void recordsAreReadOnlyViews() throws Exception {
+        File file = write("get,1\n");
+
+        MappedFileAllSource<Boolean> source = new MappedFileAllSource<>(file,
+                new MappedFileAllSource.Decoder<Boolean>() {
+                    @Override
+                    public Boolean decode(ByteBuffer record) {
+                        return record.isReadOnly() && record.remaining() == 5;
+                    }
+                });
+
+        assertTrue(source.get(0));
+    }
+
+    @Test
+    public void recordsAreSelectedByName() throws Exception {
+        File file = write("get,1\npost,22\nget,333\n");
+
+        MappedFileAllSource<String> source = new MappedFileAllSource<>(file, MappedFileAllSource.UTF_8_DECODER);
+
+        assertEquals("[get,1, get,333]", values(source.select(FIRST_COLUMN, "get")).toString());
+        assertEquals("[post,22]", values(source.select(FIRST_COLUMN, "post")).toString());
+    }
+
+    private File write(String content) throws IOException {
+        File file = folder.newFile();
+        try (OutputStream output = new FileOutputStream(file)) {
+            output.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    private <T> List<T> values(AllSource<T> source) {
+        List<T> values = new ArrayList<>();
+        for (int i = 0; i < source.size(); i++) {
+            values.add(source.get(i));
+        }
+        return values;
+    }
+}
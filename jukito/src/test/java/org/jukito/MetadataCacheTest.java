@@ -0,0 +1,114 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Key;
+import com.google.inject.Provides;
+import com.google.inject.internal.Errors;
+import com.google.inject.name.Named;
+import com.google.inject.name.Names;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test that {@link MetadataCache} finds the metadata of test classes through their superclasses,
+ * and scans every class once.
+ */
+public class MetadataCacheTest {
+
+    abstract static class BaseTestClass {
+        static class Module extends JukitoModule {
+            @Override
+            protected void configureTest() {
+            }
+        }
+
+        @Before
+        public void setUp(@Named("base") String value) {
+        }
+
+        public void notInjected() {
+        }
+    }
+
+    static class FirstTestClass extends BaseTestClass {
+        @Test
+        public void test(Integer number) {
+        }
+    }
+
+    static class ProvidingModule extends AbstractModule {
+        @Override
+        protected void configure() {
+        }
+
+        @Provides
+        @Named("provided")
+        String provideString() {
+            return "provided";
+        }
+    }
+
+    @Test
+    public void injectedMethodsIncludeSuperclasses() throws Exception {
+        List<Method> methods = MetadataCache.getInjectedMethods(FirstTestClass.class);
+
+        assertEquals(2, methods.size());
+        assertEquals("test", methods.get(0).getName());
+        assertEquals("setUp", methods.get(1).getName());
+    }
+
+    @Test
+    public void innerModuleIsFoundInSuperclasses() {
+        assertSame(BaseTestClass.Module.class, MetadataCache.getInnerModuleClass(FirstTestClass.class));
+        assertNull(MetadataCache.getInnerModuleClass(ProvidingModule.class));
+    }
+
+    @Test
+    public void methodKeysAreComputedOnce() throws Exception {
+        Method method = BaseTestClass.class.getMethod("setUp", String.class);
+
+        List<Key<?>> keys = MetadataCache.getMethodKeys(method, new Errors(method));
+
+        assertEquals(Key.get(String.class, Names.named("base")), keys.get(0));
+        assertSame(keys, MetadataCache.getMethodKeys(method, new Errors(method)));
+    }
+
+    @Test
+    public void providerMethodKeysAreFound() {
+        final List<?>[] keys = new List<?>[1];
+        Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                keys[0] = MetadataCache.getProviderMethodKeys(new ProvidingModule(), binder());
+            }
+        });
+
+        assertTrue(keys[0].contains(Key.get(String.class, Names.named("provided"))));
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Binding;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Test that {@link MethodInvoker} fills in injected and {@literal @}{@link All} parameters, and
+ * lets the exceptions of the method through.
+ */
+public class MethodInvokerTest {
+
+    static class Service {
+    }
+
+    static class InvokerModule extends AbstractModule {
+        @Override
+        protected void configure() {
+            bind(String.class).annotatedWith(NamedUniqueAnnotations.create(All.DEFAULT)).toInstance("value");
+        }
+    }
+
+    public static class Target {
+        final List<Object> arguments = new ArrayList<>();
+
+        public String invoked(Service service, @All String value) {
+            arguments.add(service);
+            arguments.add(value);
+            return value;
+        }
+
+        public void fails() {
+            throw new IllegalStateException("Expected");
+        }
+    }
+
+    @Test
+    public void parametersAreProvidedForEveryCall() throws Throwable {
+        Injector injector = Guice.createInjector(new InvokerModule());
+        Binding<?> binding = injector.findBindingsByType(Key.get(String.class).getTypeLiteral()).get(0);
+        MethodInvoker invoker = new MethodInvoker(
+                Target.class.getMethod("invoked", Service.class, String.class), injector);
+        Target target = new Target();
+
+        invoker.invoke(target, Collections.singletonList(new AllParameter.Value(binding, -1)));
+        invoker.invoke(target, Collections.singletonList(new AllParameter.Value(binding, -1)));
+
+        assertEquals(4, target.arguments.size());
+        assertEquals("value", target.arguments.get(1));
+        assertNotSame(target.arguments.get(0), target.arguments.get(2));
+    }
+
+    @Test
+    public void exceptionsAreNotWrapped() throws Throwable {
+        MethodInvoker invoker = new MethodInvoker(Target.class.getMethod("fails"), Guice.createInjector());
+
+        try {
+            invoker.invoke(new Target(), Collections.<AllParameter.Value>emptyList());
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("Expected", e.getMessage());
+        }
+    }
+}
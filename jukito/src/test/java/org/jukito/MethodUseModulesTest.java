@@ -0,0 +1,72 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.google.inject.Injector;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test that injectors created for methods annotated with {@link UseModules} are reused.
+ */
+@RunWith(JukitoRunner.class)
+@UseModules(AbcModule.class)
+public class MethodUseModulesTest {
+
+    /**
+     * This class keeps track of the injectors used by the tests of this class.
+     */
+    private static class Bookkeeper {
+        static Injector firstMethodInjector;
+        static Injector secondMethodInjector;
+        static Injector classInjector;
+    }
+
+    @Test
+    @UseModules(XyzModule.class)
+    public void firstMethodWithModules(Injector injector, UseModulesTest.Abc abc) {
+        assertTrue(abc instanceof UseModulesTest.AbcImpl2);
+        Bookkeeper.firstMethodInjector = injector;
+    }
+
+    @Test
+    @UseModules(XyzModule.class)
+    public void secondMethodWithModules(Injector injector, UseModulesTest.Abc abc) {
+        assertTrue(abc instanceof UseModulesTest.AbcImpl2);
+        Bookkeeper.secondMethodInjector = injector;
+    }
+
+    @Test
+    public void methodWithoutModules(Injector injector, UseModulesTest.Abc abc) {
+        assertTrue(abc instanceof UseModulesTest.AbcImpl);
+        Bookkeeper.classInjector = injector;
+    }
+
+    @AfterClass
+    public static void checkInjectors() {
+        assertNotNull(Bookkeeper.firstMethodInjector);
+        assertSame(Bookkeeper.firstMethodInjector, Bookkeeper.secondMethodInjector);
+        assertNotSame(Bookkeeper.classInjector, Bookkeeper.firstMethodInjector);
+    }
+}
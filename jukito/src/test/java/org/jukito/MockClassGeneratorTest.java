@@ -0,0 +1,109 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test that {@link MockClassGenerator} never initializes the mocked types, and that their
+ * initialization failures are reported by the test mocking them.
+ */
+public class MockClassGeneratorTest {
+
+    private static final AtomicInteger INITIALIZATIONS = new AtomicInteger();
+
+    interface Warm {
+        Object INITIALIZED = markInitialized();
+
+        String getValue();
+    }
+
+    abstract static class FailingInitializer {
+        static {
+            markInitialized();
+            failInitialization();
+        }
+    }
+
+    abstract static class InjectedFailingInitializer {
+        static {
+            failInitialization();
+        }
+    }
+
+    @RunWith(JukitoRunner.class)
+    public static class FailingInitializerTestClass {
+        @Test
+        public void test(InjectedFailingInitializer failingInitializer) {
+        }
+    }
+
+    static Object markInitialized() {
+        INITIALIZATIONS.incrementAndGet();
+        return new Object();
+    }
+
+    static void failInitialization() {
+        throw new IllegalStateException("Cannot initialize");
+    }
+
+    @Test
+    public void generationDoesNotInitializeTypes() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        MockClassGenerator generator = new MockClassGenerator(executor);
+
+        generator.generate(Arrays.<Class<?>>asList(Warm.class, FailingInitializer.class));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        assertEquals(0, INITIALIZATIONS.get());
+        generator.rethrowFailure(Warm.class);
+        generator.rethrowFailure(FailingInitializer.class);
+        assertNotNull(mock(Warm.class));
+    }
+
+    @Test
+    public void onlyInterfacesAreGeneratedInAdvance() {
+        assertTrue(MockClassGenerator.isMockedUninitialized(Warm.class));
+        assertFalse(MockClassGenerator.isMockedUninitialized(FailingInitializer.class));
+        assertFalse(MockClassGenerator.isMockedUninitialized(String.class));
+    }
+
+    @Test
+    public void initializationFailureIsReportedOnTheTest() throws Exception {
+        Result result = JUnitCore.runClasses(FailingInitializerTestClass.class);
+
+        assertEquals(1, result.getFailureCount());
+        assertTrue(result.getFailures().get(0).getTrace(),
+                result.getFailures().get(0).getTrace().contains("Cannot initialize"));
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.util.concurrent.Callable;
+
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+
+/**
+ * Measures the time saved by recycling mocks, on tests injecting an object with many mocked
+ * collaborators. Not run as part of the test suite, run its {@link #main(String[])} method.
+ */
+public class MockPoolBenchmark {
+
+    private static final int TESTS = 2000;
+    private static final int ROUNDS = 5;
+
+    interface Collaborator1 {
+    }
+
+    interface Collaborator2 {
+    }
+
+    interface Collaborator3 {
+    }
+
+    interface Collaborator4 {
+    }
+
+    interface Collaborator5 {
+    }
+
+    interface Collaborator6 {
+    }
+
+    interface Collaborator7 {
+    }
+
+    interface Collaborator8 {
+    }
+
+    interface Collaborator9 {
+    }
+
+    interface Collaborator10 {
+    }
+
+    static class SystemUnderTest {
+        @Inject
+        SystemUnderTest(Collaborator1 c1, Collaborator2 c2, Collaborator3 c3, Collaborator4 c4,
+                Collaborator5 c5, Collaborator6 c6, Collaborator7 c7, Collaborator8 c8,
+                Collaborator9 c9, Collaborator10 c10, Callable<String> callable, Runnable runnable) {
+        }
+    }
+
+    static class BenchmarkModule extends JukitoModule {
+        private final boolean recycleMocks;
+
+        BenchmarkModule(boolean recycleMocks) {
+            this.recycleMocks = recycleMocks;
+        }
+
+        @Override
+        protected void configureTest() {
+            bind(SystemUnderTest.class);
+        }
+
+        @Override
+        public boolean recycleMocks() {
+            return recycleMocks;
+        }
+    }
+
+    public static void main(String[] args) {
+        Injector newMocks = createInjector(false);
+        Injector recycledMocks = createInjector(true);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long newMocksTime = runTests(newMocks);
+            long recycledMocksTime = runTests(recycledMocks);
+            System.out.println(String.format("Round %d: new mocks %6.1f us/test, recycled mocks %6.1f us/test",
+                    round + 1, newMocksTime / 1000.0 / TESTS, recycledMocksTime / 1000.0 / TESTS));
+        }
+    }
+
+    private static Injector createInjector(boolean recycleMocks) {
+        BenchmarkModule module = new BenchmarkModule(recycleMocks);
+        module.recordUserElements();
+        return Guice.createInjector(module);
+    }
+
+    /**
+     * Opens and closes a test context around every injection, like {@link JukitoRunner} does.
+     */
+    private static long runTests(Injector injector) {
+        long start = System.nanoTime();
+        for (int i = 0; i < TESTS; i++) {
+            TestScope.Context previous = TestScope.openContext();
+            try {
+                injector.getInstance(SystemUnderTest.class);
+            } finally {
+                TestScope.closeContext(previous);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test that {@link MockPool} hands out released mocks again, without any leftover state.
+ */
+public class MockPoolTest {
+
+    interface Untouched {
+        String getValue();
+    }
+
+    interface Touched {
+        String getValue();
+    }
+
+    private final MockPool mockPool = MockPool.getInstance();
+
+    @Test
+    public void untouchedMockIsHandedOutAgain() {
+        Untouched mock = acquireInTest(Untouched.class);
+        Untouched recycled = acquireInTest(Untouched.class);
+
+        assertSame(mock, recycled);
+        assertTrue(mockingDetails(recycled).getInvocations().isEmpty());
+    }
+
+    @Test
+    public void touchedMockIsResetBeforeBeingHandedOutAgain() {
+        Touched mock;
+        TestScope.Context previous = TestScope.openContext();
+        try {
+            mock = mockPool.acquire(Touched.class);
+            when(mock.getValue()).thenReturn("stubbed");
+            assertEquals("stubbed", mock.getValue());
+            verify(mock).getValue();
+        } finally {
+            TestScope.closeContext(previous);
+        }
+
+        Touched recycled = acquireInTest(Touched.class);
+
+        assertSame(mock, recycled);
+        assertTrue(mockingDetails(recycled).getInvocations().isEmpty());
+        assertTrue(mockingDetails(recycled).getStubbings().isEmpty());
+        assertNull(recycled.getValue());
+    }
+
+    @Test
+    public void mocksAcquiredOutsideOfTestsAreNotRecycled() {
+        Untouched mock = mockPool.acquire(Untouched.class);
+        mockPool.release(mock);
+
+        assertNotSame(mock, acquireInTest(Untouched.class));
+    }
+
+    @Test
+    public void mocksGoBackToThePoolTheyCameFrom() {
+        MockPool injectorPool = new MockPool();
+        Untouched mock = acquireInTest(injectorPool, Untouched.class);
+
+        assertNotSame(mock, acquireInTest(Untouched.class));
+        assertSame(mock, acquireInTest(injectorPool, Untouched.class));
+    }
+
+    private <T> T acquireInTest(Class<T> type) {
+        return acquireInTest(mockPool, type);
+    }
+
+    private <T> T acquireInTest(MockPool pool, Class<T> type) {
+        TestScope.Context previous = TestScope.openContext();
+        try {
+            return pool.acquire(type);
+        } finally {
+            TestScope.closeContext(previous);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test that recycled mocks are handed out again without any stubbing or invocation
+ * left over from the previous test.
+ */
+@RunWith(JukitoRunner.class)
+public class MockRecyclingTest {
+
+    public static class Module extends JukitoModule {
+        @Override
+        protected void configureTest() {
+        }
+
+        @Override
+        public boolean recycleMocks() {
+            return true;
+        }
+    }
+
+    interface Collaborator {
+        String getValue();
+    }
+
+    private static final List<Collaborator> COLLABORATORS = new ArrayList<>();
+
+    @AfterClass
+    public static void checkMockWasRecycled() {
+        assertEquals(2, COLLABORATORS.size());
+        assertSame(COLLABORATORS.get(0), COLLABORATORS.get(1));
+    }
+
+    @Test
+    public void first(Collaborator collaborator) {
+        useCollaborator(collaborator);
+    }
+
+    @Test
+    public void second(Collaborator collaborator) {
+        useCollaborator(collaborator);
+    }
+
+    private void useCollaborator(Collaborator collaborator) {
+        COLLABORATORS.add(collaborator);
+
+        assertTrue(mockingDetails(collaborator).getInvocations().isEmpty());
+        assertNull(collaborator.getValue());
+
+        when(collaborator.getValue()).thenReturn("stubbed");
+        assertEquals("stubbed", collaborator.getValue());
+    }
+}
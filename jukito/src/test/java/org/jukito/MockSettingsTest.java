@@ -0,0 +1,73 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Answers;
+import org.mockito.MockSettings;
+
+import com.google.inject.name.Named;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Test that mocks are created with the module-wide or per-binding {@link MockSettings}.
+ */
+@RunWith(JukitoRunner.class)
+public class MockSettingsTest {
+
+    public static class Module extends JukitoModule {
+        @Override
+        protected void configureTest() {
+            bindNamedMock(Service.class, "smartNulls",
+                    withSettings().defaultAnswer(Answers.RETURNS_SMART_NULLS)).in(TestSingleton.class);
+        }
+
+        @Override
+        public MockSettings getMockSettings() {
+            return withSettings().stubOnly();
+        }
+    }
+
+    interface Service {
+        String getValue();
+    }
+
+    @Test
+    public void automaticMocksUseModuleSettings(Service service) {
+        assertTrue(mockingDetails(service).getMockCreationSettings().isStubOnly());
+    }
+
+    @Test
+    public void boundMocksUseTheirOwnSettings(@Named("smartNulls") Service service) {
+        assertFalse(mockingDetails(service).getMockCreationSettings().isStubOnly());
+        assertSame(Answers.RETURNS_SMART_NULLS,
+                mockingDetails(service).getMockCreationSettings().getDefaultAnswer());
+    }
+
+    @Test
+    public void moduleSettingsAreComputedOnce() {
+        Module module = new Module();
+
+        assertSame(module.getDefaultMockSettings(), module.getDefaultMockSettings());
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mockingDetails;
+
+/**
+ * Test that the modules used by a test class are instantiated and configured a single time.
+ */
+@RunWith(JukitoRunner.class)
+@UseModules(ModuleConfiguredOnceTest.CountingModule.class)
+public class ModuleConfiguredOnceTest {
+
+    static class CountingModule extends AbstractModule {
+        static int instantiations;
+        static int configurations;
+
+        CountingModule() {
+            instantiations++;
+        }
+
+        @Override
+        protected void configure() {
+            configurations++;
+            bind(Counted.class).to(CountedImpl.class);
+        }
+    }
+
+    interface Counted {
+    }
+
+    interface Collaborator {
+    }
+
+    static class CountedImpl implements Counted {
+        final Collaborator collaborator;
+
+        @Inject
+        CountedImpl(Collaborator collaborator) {
+            this.collaborator = collaborator;
+        }
+    }
+
+    @Test
+    public void moduleIsConfiguredOnce(Counted counted) {
+        assertTrue(counted instanceof CountedImpl);
+        assertEquals(1, CountingModule.instantiations);
+        assertEquals(1, CountingModule.configurations);
+    }
+
+    @Test
+    public void transitiveDependenciesAreStillMocked(Counted counted) {
+        assertTrue(mockingDetails(((CountedImpl) counted).collaborator).isMock());
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+import org.junit.runner.notification.RunListener;
+
+import com.google.inject.Inject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test that the combinations of a {@link Parallel} test method run concurrently, each with its
+ * own test instance, and are reported under their own description.
+ */
+public class ParallelCombinationsTest {
+
+    @RunWith(JukitoRunner.class)
+    public static class ParallelMethodTestClass {
+        public static class Module extends JukitoModule {
+            @Override
+            protected void configureTest() {
+                bindManyInstances(String.class, "a", "b");
+            }
+        }
+
+        static final CyclicBarrier BARRIER = new CyclicBarrier(2);
+
+        @TestSingleton
+        static class State {
+            String owner;
+        }
+
+        @Inject
+        State state;
+
+        @Test
+        @Parallel(threads = 2)
+        public void combinations(@All String value, State injected) throws Exception {
+            assertSame(state, injected);
+            state.owner = value;
+
+            // Fails with a timeout if the combinations run one after the other
+            BARRIER.await(10, TimeUnit.SECONDS);
+
+            assertEquals(value, state.owner);
+        }
+
+        @Test
+        public void sequential(@All String value) {
+        }
+    }
+
+    @Test
+    public void combinationsRunConcurrentlyUnderTheirOwnDescription() {
+        final List<String> finished = Collections.synchronizedList(new ArrayList<String>());
+        JUnitCore core = new JUnitCore();
+        core.addListener(new RunListener() {
+            @Override
+            public void testFinished(Description description) {
+                finished.add(description.getMethodName());
+            }
+        });
+
+        Result result = core.run(ParallelMethodTestClass.class);
+
+        assertEquals(0, result.getFailureCount());
+        assertEquals(4, result.getRunCount());
+        assertTrue(finished.contains("combinations[0]"));
+        assertTrue(finished.contains("combinations[1]"));
+        assertEquals(2, Collections.frequency(finished, "sequential"));
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.google.inject.Inject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test that the methods of a {@link Parallel} test class run concurrently, each with
+ * its own test-scoped singletons.
+ */
+@RunWith(JukitoRunner.class)
+@Parallel(threads = 2)
+public class ParallelTest {
+
+    private static final CyclicBarrier BARRIER = new CyclicBarrier(2);
+
+    @TestSingleton
+    static class State {
+        String owner;
+    }
+
+    @Inject
+    State state;
+
+    @Test
+    public void first(State injected) throws Exception {
+        checkState("first", injected);
+    }
+
+    @Test
+    public void second(State injected) throws Exception {
+        checkState("second", injected);
+    }
+
+    private void checkState(String owner, State injected) throws Exception {
+        assertSame(state, injected);
+        state.owner = owner;
+
+        // Fails with a timeout if the methods run one after the other
+        BARRIER.await(10, TimeUnit.SECONDS);
+
+        assertEquals(owner, state.owner);
+    }
+}
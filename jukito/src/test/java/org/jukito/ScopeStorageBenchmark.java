@@ -0,0 +1,200 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.Scope;
+import com.google.inject.name.Names;
+import com.google.inject.util.Types;
+
+/**
+ * Compares the slot-indexed storage of {@link TestScope} with the key-hashed maps it replaced,
+ * for lookups and for clearing the scope between tests. Not run as part of the test suite, run
+ * its {@link #main(String[])} method with a JIT-enabled JVM.
+ */
+public class ScopeStorageBenchmark {
+
+    private static final int KEYS = 500;
+    private static final int TESTS = 20000;
+    private static final int LOOKUPS_PER_KEY = 4;
+    private static final int ROUNDS = 5;
+    private static final int INJECTORS = 8;
+
+    private static final Provider<Object> PROVIDER = new Provider<Object>() {
+        @Override
+        public Object get() {
+            return new Object();
+        }
+    };
+
+    /**
+     * Scope storage as it was before slots: one hashed map per scope.
+     */
+    private static class MapScope {
+        private final Map<Key<?>, Object> backingMap;
+
+        MapScope(Map<Key<?>, Object> backingMap) {
+            this.backingMap = backingMap;
+        }
+
+        Provider<Object> scope(final Key<?> key) {
+            return new Provider<Object>() {
+                public Object get() {
+                    Object o = backingMap.get(key);
+                    if (o == null) {
+                        o = PROVIDER.get();
+                        backingMap.put(key, o);
+                    }
+                    return o;
+                }
+            };
+        }
+
+        void clear() {
+            backingMap.clear();
+        }
+    }
+
+    private interface Scenario {
+        void newTest();
+
+        Object lookup(int index);
+    }
+
+    public static void main(String[] args) {
+        final Key<?>[] keys = createKeys();
+
+        final MapScope hashMap = new MapScope(new HashMap<Key<?>, Object>());
+        final MapScope concurrentMap = new MapScope(new ConcurrentHashMap<Key<?>, Object>());
+        final Provider<?>[] hashMapProviders = new Provider<?>[KEYS];
+        final Provider<?>[] concurrentMapProviders = new Provider<?>[KEYS];
+        final Provider<?>[] slotProviders = new Provider<?>[KEYS];
+        final Provider<?>[] spreadSlotProviders = new Provider<?>[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            hashMapProviders[i] = hashMap.scope(keys[i]);
+            concurrentMapProviders[i] = concurrentMap.scope(keys[i]);
+        }
+        // The keys are numbered as if they were bound by a single injector
+        scopeWithSlots(keys, slotProviders, 1);
+        // Then as if they were bound by several injectors used by the same tests
+        scopeWithSlots(keys, spreadSlotProviders, INJECTORS);
+
+        Scenario hashMapScenario = new Scenario() {
+            public void newTest() {
+                hashMap.clear();
+            }
+
+            public Object lookup(int index) {
+                return hashMapProviders[index].get();
+            }
+        };
+        Scenario concurrentMapScenario = new Scenario() {
+            public void newTest() {
+                concurrentMap.clear();
+            }
+
+            public Object lookup(int index) {
+                return concurrentMapProviders[index].get();
+            }
+        };
+        Scenario slotScenario = new Scenario() {
+            public void newTest() {
+                TestScope.clear();
+            }
+
+            public Object lookup(int index) {
+                return slotProviders[index].get();
+            }
+        };
+        Scenario spreadSlotScenario = new Scenario() {
+            public void newTest() {
+                TestScope.clear();
+            }
+
+            public Object lookup(int index) {
+                return spreadSlotProviders[index].get();
+            }
+        };
+
+        for (int round = 0; round < ROUNDS; round++) {
+            System.out.println("Round " + (round + 1));
+            report("HashMap", hashMapScenario);
+            report("ConcurrentHashMap", concurrentMapScenario);
+            report("Slots", slotScenario);
+            report("Slots, " + INJECTORS + " injectors", spreadSlotScenario);
+        }
+    }
+
+    /**
+     * Scopes the keys in turn with each of {@code injectors} slots.
+     */
+    @SuppressWarnings("unchecked")
+    private static void scopeWithSlots(Key<?>[] keys, Provider<?>[] providers, int injectors) {
+        Scope scope = TestScope.SINGLETON;
+        TestScope.Slots[] slots = new TestScope.Slots[injectors];
+        for (int i = 0; i < injectors; i++) {
+            slots[i] = new TestScope.Slots();
+        }
+        for (int i = 0; i < keys.length; i++) {
+            TestScope.Slots previousSlots = TestScope.enterInjector(slots[i % injectors]);
+            try {
+                providers[i] = scope.scope((Key<Object>) keys[i], PROVIDER);
+            } finally {
+                TestScope.exitInjector(previousSlots);
+            }
+        }
+    }
+
+    private static Key<?>[] createKeys() {
+        Key<?>[] keys = new Key<?>[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            // Annotated generic keys, the most expensive ones to hash and compare
+            keys[i] = Key.get(Types.newParameterizedType(List.class, Types.newParameterizedType(
+                    Map.class, String.class, Integer.class)), Names.named("key" + i));
+        }
+        return keys;
+    }
+
+    private static void report(String name, Scenario scenario) {
+        long clearTime = 0;
+        long lookupTime = 0;
+        int checksum = 0;
+        for (int test = 0; test < TESTS; test++) {
+            long start = System.nanoTime();
+            scenario.newTest();
+            long cleared = System.nanoTime();
+            for (int lookup = 0; lookup < LOOKUPS_PER_KEY; lookup++) {
+                for (int i = 0; i < KEYS; i++) {
+                    checksum += System.identityHashCode(scenario.lookup(i)) & 1;
+                }
+            }
+            long end = System.nanoTime();
+            clearTime += cleared - start;
+            lookupTime += end - cleared;
+        }
+
+        long lookups = (long) TESTS * LOOKUPS_PER_KEY * KEYS;
+        System.out.println(String.format("  %-22s lookup %6.1f ns/op   clear %8.1f ns/test   (%d)",
+                name, (double) lookupTime / lookups, (double) clearTime / TESTS, checksum));
+    }
+}
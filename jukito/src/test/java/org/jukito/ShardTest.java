@@ -0,0 +1,92 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test that {@link Shard} splits tests evenly and that {@link JukitoRunner} only keeps the tests,
+ * and the {@literal @}{@link All} combinations, of its shard.
+ */
+public class ShardTest {
+
+    public static class ShardedTestClass {
+        public static class Module extends JukitoModule {
+            @Override
+            protected void configureTest() {
+                bindManyInstances(Integer.class, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+                bindManyInstances(String.class, "a", "b", "c", "d", "e", "f", "g", "h", "i", "j");
+            }
+        }
+
+        @Test
+        public void combinations(@All Integer number, @All String value) {
+        }
+
+        @Test
+        public void first() {
+        }
+
+        @Test
+        public void second() {
+        }
+    }
+
+    @Test
+    public void everyTestBelongsToExactlyOneShard() {
+        Shard[] shards = {new Shard(0, 4), new Shard(1, 4), new Shard(2, 4), new Shard(3, 4)};
+        int[] counts = new int[shards.length];
+
+        for (int i = 0; i < 10000; i++) {
+            String testId = "org.example.SomeTest#someTest[" + i + "]";
+            int owners = 0;
+            for (int shard = 0; shard < shards.length; shard++) {
+                if (shards[shard].contains(testId)) {
+                    owners++;
+                    counts[shard]++;
+                }
+            }
+            assertEquals(1, owners);
+        }
+
+        for (int count : counts) {
+            assertTrue("Unbalanced shard of " + count + " tests", count > 2250 && count < 2750);
+        }
+    }
+
+    @Test
+    public void shardsSplitTheCombinations() throws Exception {
+        int total = 0;
+        for (int index = 0; index < 3; index++) {
+            System.setProperty(Shard.COUNT_PROPERTY, "3");
+            System.setProperty(Shard.INDEX_PROPERTY, Integer.toString(index));
+            try {
+                int count = new JukitoRunner(ShardedTestClass.class).testCount();
+                assertTrue(count < 102);
+                total += count;
+            } finally {
+                System.clearProperty(Shard.COUNT_PROPERTY);
+                System.clearProperty(Shard.INDEX_PROPERTY);
+            }
+        }
+
+        assertEquals(102, total);
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Test that spies are built without constructing a second instance, and that spies of
+ * immutable instances bound in the {@link TestSingleton} scope are reused from one test to the
+ * next when mocks are recycled.
+ */
+@RunWith(JukitoRunner.class)
+public class SpyConstructionTest {
+
+    public static class Module extends JukitoModule {
+        @Override
+        protected void configureTest() {
+            bindSpy(Counted.class).in(TestSingleton.class);
+            bindNamedSpy(Immutable.class, new Immutable("value"), "immutable").in(TestSingleton.class);
+            bindNamedSpy(Immutable.class, new Immutable("unscoped"), "unscoped");
+        }
+
+        @Override
+        public boolean recycleMocks() {
+            return true;
+        }
+    }
+
+    interface Collaborator {
+        void call();
+    }
+
+    static class Counted {
+        static int constructions;
+
+        @Inject
+        Collaborator collaborator;
+
+        Counted() {
+            constructions++;
+        }
+
+        void callCollaborator() {
+            collaborator.call();
+        }
+    }
+
+    static class Immutable {
+        private final String value;
+
+        Immutable(String value) {
+            this.value = value;
+        }
+
+        String getValue() {
+            return value;
+        }
+    }
+
+    private static final List<Immutable> IMMUTABLE_SPIES = new ArrayList<>();
+    private static final List<Immutable> UNSCOPED_SPIES = new ArrayList<>();
+
+    @AfterClass
+    public static void checkImmutableSpyWasReused() {
+        assertEquals(2, IMMUTABLE_SPIES.size());
+        assertSame(IMMUTABLE_SPIES.get(0), IMMUTABLE_SPIES.get(1));
+    }
+
+    @AfterClass
+    public static void checkUnscopedSpyWasNotReused() {
+        assertEquals(2, UNSCOPED_SPIES.size());
+        assertNotSame(UNSCOPED_SPIES.get(0), UNSCOPED_SPIES.get(1));
+    }
+
+    @Test
+    public void spyIsConstructedOnce(Counted counted, Collaborator collaborator) {
+        int constructions = Counted.constructions;
+
+        counted.callCollaborator();
+
+        assertEquals(1, constructions);
+        assertTrue(mockingDetails(counted).isSpy());
+        verify(counted).callCollaborator();
+        verify(collaborator).call();
+    }
+
+    @Test
+    public void immutableSpyIsReused(@Named("immutable") Immutable immutable,
+            @Named("unscoped") Immutable unscoped) {
+        IMMUTABLE_SPIES.add(immutable);
+        UNSCOPED_SPIES.add(unscoped);
+
+        assertTrue(mockingDetails(immutable).getInvocations().isEmpty());
+        assertEquals("value", immutable.getValue());
+    }
+
+    @Test
+    public void immutableSpyIsReusedAgain(@Named("immutable") Immutable immutable,
+            @Named("unscoped") Immutable unscoped) {
+        immutableSpyIsReused(immutable, unscoped);
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runners.model.FrameworkMethod;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test that {@link JukitoRunner} computes its test plan once.
+ */
+public class TestPlanTest {
+
+    public static class PlannedTestClass {
+        public static class Module extends JukitoModule {
+            @Override
+            protected void configureTest() {
+                bindManyInstances(String.class, "a", "b", "c");
+            }
+        }
+
+        @Test
+        public void test(@All String value) {
+        }
+
+        @Test
+        public void other() {
+        }
+    }
+
+    @Test
+    public void testPlanIsComputedOnce() throws Exception {
+        JukitoRunner runner = new JukitoRunner(PlannedTestClass.class);
+
+        List<FrameworkMethod> plan = runner.computeTestMethods();
+
+        assertSame(plan, runner.computeTestMethods());
+        assertEquals(4, plan.size());
+        assertEquals(4, runner.testCount());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testPlanCannotBeModified() throws Exception {
+        JukitoRunner runner = new JukitoRunner(PlannedTestClass.class);
+
+        runner.computeTestMethods().remove(0);
+    }
+}
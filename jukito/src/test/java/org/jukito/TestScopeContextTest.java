@@ -0,0 +1,208 @@
+/**
+ * Copyright 2017 ArcBees Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.jukito;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.junit.experimental.ParallelComputer;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test that test-scoped singletons are bound to the context of the running test.
+ */
+public class TestScopeContextTest {
+
+    @TestSingleton
+    static class Counter {
+        int value;
+    }
+
+    static class ContextModule extends TestModule {
+        @Override
+        protected void configureTest() {
+            bind(Counter.class);
+        }
+    }
+
+    @RunWith(JukitoRunner.class)
+    public static class ConcurrentTestClass {
+        private static final CyclicBarrier BARRIER = new CyclicBarrier(2);
+
+        @Inject
+        Counter counter;
+
+        @Test
+        public void first(Counter counter) throws Exception {
+            checkCounter(counter);
+        }
+
+        @Test
+        public void second(Counter counter) throws Exception {
+            checkCounter(counter);
+        }
+
+        private void checkCounter(Counter injected) throws Exception {
+            assertSame(counter, injected);
+            counter.value++;
+            // Both tests hold their singleton at the same time
+            BARRIER.await();
+            assertEquals(1, counter.value);
+        }
+    }
+
+    @Test
+    public void contextsHaveTheirOwnSingletons() throws Exception {
+        final Injector injector = Guice.createInjector(new ContextModule());
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+        Callable<Counter> task = new Callable<Counter>() {
+            @Override
+            public Counter call() throws Exception {
+                TestScope.Context previous = TestScope.openContext();
+                try {
+                    Counter counter = injector.getInstance(Counter.class);
+                    barrier.await();
+                    assertSame(counter, injector.getInstance(Counter.class));
+                    return counter;
+                } finally {
+                    TestScope.restoreContext(previous);
+                }
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Counter> first = executor.submit(task);
+            Future<Counter> second = executor.submit(task);
+
+            assertNotSame(first.get(), second.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void injectorsNumberTheirOwnKeys() {
+        TestScope.Slots firstSlots = new TestScope.Slots();
+        TestScope.Slots secondSlots = new TestScope.Slots();
+
+        Injector first = createInjector(firstSlots);
+        Injector second = createInjector(secondSlots);
+
+        assertTrue(firstSlots.size() > 0);
+        assertEquals(firstSlots.size(), secondSlots.size());
+        assertNotSame(first.getInstance(Counter.class), second.getInstance(Counter.class));
+    }
+
+    @Test
+    public void keysScopedLaterShareTheSlotsOfTheirClass() {
+        TestScope.Context classContext = TestScope.newClassContext(TestScope.newSuiteContext());
+        TestScope.Context previous = TestScope.openContext(classContext);
+        try {
+            Injector first = Guice.createInjector(new ContextModule());
+            int size = classContext.getSlots().size();
+            Injector second = Guice.createInjector(new ContextModule());
+
+            assertTrue(size > 0);
+            assertEquals(2 * size, classContext.getSlots().size());
+            assertNotSame(first.getInstance(Counter.class), second.getInstance(Counter.class));
+        } finally {
+            TestScope.restoreContext(previous);
+        }
+    }
+
+    @Test
+    public void scheduledChildrenRunInTheContextOfTheirTest() throws Exception {
+        final Injector injector = Guice.createInjector(new ContextModule());
+        final Counter[] scheduled = new Counter[1];
+        ParallelScheduler scheduler = new ParallelScheduler(1);
+
+        TestScope.Context previous = TestScope.openContext();
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    scheduled[0] = injector.getInstance(Counter.class);
+                }
+            });
+            scheduler.finished();
+
+            assertSame(injector.getInstance(Counter.class), scheduled[0]);
+        } finally {
+            TestScope.closeContext(previous);
+        }
+    }
+
+    @Test
+    public void concurrentCreationPublishesOneInstance() throws Exception {
+        final TestScope.SlotTable table = new TestScope.SlotTable(new TestScope.Slots());
+        final CyclicBarrier barrier = new CyclicBarrier(4);
+        Callable<Object> task = new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                barrier.await();
+                return table.putIfAbsent(7, new Object());
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] published = new Future<?>[4];
+            for (int i = 0; i < published.length; i++) {
+                published[i] = executor.submit(task);
+            }
+
+            for (Future<?> future : published) {
+                assertSame(published[0].get(), future.get());
+            }
+            assertSame(published[0].get(), table.get(7));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void concurrentTestsHaveTheirOwnSingletons() {
+        Result result = JUnitCore.runClasses(ParallelComputer.methods(), ConcurrentTestClass.class);
+
+        assertTrue(result.getFailures().toString(), result.wasSuccessful());
+    }
+
+    private Injector createInjector(TestScope.Slots slots) {
+        TestScope.Slots previous = TestScope.enterInjector(slots);
+        try {
+            return Guice.createInjector(new ContextModule());
+        } finally {
+            TestScope.exitInjector(previous);
+        }
+    }
+}